@@ -31,7 +31,8 @@ public final class AssetManager implements ProjectChangeListener {
 
   private static class AssetInfo { // Describes one asset
     String fileId;
-    byte [] fileContent;
+    byte [] fileContent;    // null until the asset is first needed by the repl
+    boolean fetching;       // true while fileContent is being read from the server
     boolean loaded;         // true if already loaded to the repl (phone)
   }
 
@@ -64,8 +65,15 @@ public final class AssetManager implements ProjectChangeListener {
       assetsFolder = ((YoungAndroidProjectNode) project.getRootNode()).getAssetsFolder();
       project.addProjectChangeListener(this);
       assets = new HashMap<String,AssetInfo>();
+      // Only the asset names are recorded here. The contents are read in the
+      // first time they have to be sent to the repl, so opening a project with
+      // many assets doesn't download all of them.
       for (ProjectNode node : assetsFolder.getChildren()) {
-        readIn(node);
+        AssetInfo assetInfo = new AssetInfo();
+        assetInfo.fileId = node.getFileId();
+        assetInfo.loaded = false; // Set to true when it is loaded to the repl
+        assets.put(assetInfo.fileId, assetInfo);
+        OdeLog.log("Adding asset fileId = " + assetInfo.fileId);
       }
     } else {
       project = null;
@@ -74,35 +82,50 @@ public final class AssetManager implements ProjectChangeListener {
     }
   }
 
-  private void readIn(ProjectNode node) {
-    final String fileId = node.getFileId();
-    Ode.getInstance().getProjectService().loadraw(projectId, fileId,
+  private void readIn(final AssetInfo assetInfo, final String formName) {
+    final long readProjectId = projectId;
+    assetInfo.fetching = true;
+    Ode.getInstance().getProjectService().loadraw(projectId, assetInfo.fileId,
       new AsyncCallback<byte[]>() {
         @Override
           public void onSuccess(byte [] data) {
-          AssetInfo assetInfo = new AssetInfo();
-          assetInfo.fileId = fileId;
+          assetInfo.fetching = false;
+          if (readProjectId != projectId || assets == null
+              || assets.get(assetInfo.fileId) != assetInfo) {
+            // The project was switched, or its assets changed, while we were reading
+            return;
+          }
           assetInfo.fileContent = data;
-          assetInfo.loaded = false; // Set to true when it is loaded to the repl
-          assets.put(fileId, assetInfo);
-          OdeLog.log("Adding asset fileId = " + fileId);
+          OdeLog.log("Read asset fileId = " + assetInfo.fileId);
+          putAsset(assetInfo, formName);
         }
 
         @Override
           public void onFailure(Throwable ex) {
+          assetInfo.fetching = false;
           OdeLog.elog("Failed to load asset.");
         }
       });
   }
 
+  private void putAsset(AssetInfo assetInfo, String formName) {
+    boolean didit = doPutAsset(formName, assetInfo.fileId, assetInfo.fileContent);
+    if (didit)
+      assetInfo.loaded = true;
+  }
+
   private void refreshAssets1() {
+    if (assets == null)
+      return;
     String formName = projectId + "_" + "Screen1"; // The repl communication is done from the Screen1 blockly
     OdeLog.log("AssetManager: formName = " + formName);
     for (AssetInfo a : assets.values()) {
       if (!a.loaded) {
-        boolean didit = doPutAsset(formName, a.fileId, a.fileContent);
-        if (didit)
-          a.loaded = true;
+        if (a.fileContent != null) {
+          putAsset(a, formName);
+        } else if (!a.fetching) {
+          readIn(a, formName);
+        }
       }
     }
   }
@@ -647,6 +647,15 @@ public class Ode implements EntryPoint {
     return editorManager;
   }
 
+  /**
+   * Returns the status panel.
+   *
+   * @return  {@link StatusPanel}
+   */
+  public StatusPanel getStatusPanel() {
+    return statusPanel;
+  }
+
   /**
    * Returns the project manager.
    *
@@ -188,6 +188,10 @@ public interface OdeMessages extends Messages {
   @Description("Label showing the ant build date and the git version")
   String gitBuildId(String date, String version);
 
+  @DefaultMessage("Unsaved files: {0}")
+  @Description("Label showing how many files are waiting to be saved to the server")
+  String unsavedFilesStatus(int count);
+
   @DefaultMessage("About")
   @Description("Label of the link for About")
   String aboutLink();
@@ -310,6 +314,10 @@ public interface OdeMessages extends Messages {
   @Description("Error message reported when one or more file couldn't be saved to the server.")
   String saveErrorMultipleFiles();
 
+  @DefaultMessage("Server error: saving is taking too long. Your changes will be saved again.")
+  @Description("Error message reported when the server didn't answer a request to save files.")
+  String saveErrorTimeout();
+
   @DefaultMessage("Error generating Yail for screen {0}: {1}. Please fix and try packaging again.")
   @Description("Error message reported when yail generation fails for a screen")
   String yailGenerationError(String formName, String description);
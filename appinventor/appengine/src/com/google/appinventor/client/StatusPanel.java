@@ -19,6 +19,9 @@ import com.google.gwt.user.client.ui.Label;
  *
  */
 public class StatusPanel extends Composite {
+  // Shows how many files are waiting to be saved; hidden when there are none.
+  private final Label saveQueueStatus = new Label();
+
   private String AppInventorFooter =
     "<a href='" + Ode.APP_INVENTOR_DOCS_URL + "/about/termsofservice.html'" +
     " target=_blank>" + MESSAGES.privacyTermsLink() + "</a>";
@@ -32,6 +35,9 @@ public class StatusPanel extends Composite {
     hpanel.setHorizontalAlignment(HorizontalPanel.ALIGN_LEFT);
     hpanel.add(new HTML(AppInventorFooter));
 
+    saveQueueStatus.setVisible(false);
+    hpanel.add(saveQueueStatus);
+
     // This shows the git version and the date of the build
     String version = GitBuildId.getVersion();
     String date = GitBuildId.getDate();
@@ -44,4 +50,18 @@ public class StatusPanel extends Composite {
     initWidget(hpanel);
     setStyleName("ode-StatusPanel");
   }
+
+  /**
+   * Shows the number of files that are waiting to be saved or are being saved.
+   *
+   * @param depth  number of unsaved files
+   */
+  public void showSaveQueueDepth(int depth) {
+    if (depth > 0) {
+      saveQueueStatus.setText(MESSAGES.unsavedFilesStatus(depth));
+      saveQueueStatus.setVisible(true);
+    } else {
+      saveQueueStatus.setVisible(false);
+    }
+  }
 }
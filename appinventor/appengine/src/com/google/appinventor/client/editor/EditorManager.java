@@ -10,6 +10,7 @@ import static com.google.appinventor.client.Ode.MESSAGES;
 import com.google.appinventor.client.ErrorReporter;
 import com.google.appinventor.client.Ode;
 import com.google.appinventor.client.OdeAsyncCallback;
+import com.google.appinventor.client.StatusPanel;
 import com.google.appinventor.client.editor.youngandroid.YaBlocksEditor;
 import com.google.appinventor.client.editor.youngandroid.YailGenerationException;
 import com.google.appinventor.client.explorer.project.Project;
@@ -22,6 +23,8 @@ import com.google.gwt.user.client.Timer;
 
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -46,12 +49,69 @@ public final class EditorManager {
   // TODO(user): Make this configurable.
   private static final int AUTO_SAVE_FORCED_TIMEOUT = 30000;
 
+  // Save RPCs that take longer than this (in ms) cause the idle timeout to be
+  // doubled, up to AUTO_SAVE_MAX_IDLE_TIMEOUT, so that a slow server receives
+  // fewer, larger saves.
+  private static final int SLOW_SAVE_THRESHOLD = 2000;
+  private static final int AUTO_SAVE_MAX_IDLE_TIMEOUT = 8000;
+
+  // Save RPCs that haven't completed after this long (in ms) are given up on,
+  // and their files are saved again.
+  private static final int SAVE_TIMEOUT = 60000;
+
   // Fields used for saving and auto-saving.
   private final Set<ProjectSettings> dirtyProjectSettings;
   private final Set<FileEditor> dirtyFileEditors;
   private final Timer autoSaveTimer;
   private boolean autoSaveIsScheduled;
   private long autoSaveRequestTime;
+  private int autoSaveIdleTimeout = AUTO_SAVE_IDLE_TIMEOUT;
+
+  // Number of files whose save RPC hasn't completed yet.
+  private int filesBeingSaved;
+
+  // Save RPCs that haven't completed yet, keyed by sequence number, oldest first.
+  private final Map<Integer, SaveBatch> savesInFlight;
+
+  // Sequence number of the last save RPC that was sent.
+  private int saveSequence;
+
+  // Content of each file as it was last sent to the server, keyed by
+  // getFileKey(projectId, fileId). Files whose content hasn't changed since
+  // it was saved are not sent to the server again. An entry is dropped when
+  // its save fails, when the file or its project is closed, or when the file
+  // is saved other than through this class.
+  private final Map<String, SentContent> lastSentContents;
+
+  /*
+   * One save RPC of one or more files.
+   */
+  private static class SaveBatch {
+    private final int sequence;
+    private final List<FileDescriptorWithContent> files;
+    private final long startTime;
+
+    SaveBatch(int sequence, List<FileDescriptorWithContent> files, long startTime) {
+      this.sequence = sequence;
+      this.files = files;
+      this.startTime = startTime;
+    }
+  }
+
+  /*
+   * The content of a file as it was sent to the server by the save RPC with
+   * the given sequence number.
+   */
+  private static class SentContent {
+    private final String content;
+    private final int sequence;
+    private boolean saved;  // true once the save RPC has succeeded
+
+    SentContent(String content, int sequence) {
+      this.content = content;
+      this.sequence = sequence;
+    }
+  }
 
   /**
    * Creates the editor manager.
@@ -61,10 +121,26 @@ public final class EditorManager {
 
     dirtyProjectSettings = new HashSet<ProjectSettings>();
     dirtyFileEditors = new HashSet<FileEditor>();
+    savesInFlight = new LinkedHashMap<Integer, SaveBatch>();
+    lastSentContents = Maps.newHashMap();
 
     autoSaveTimer = new Timer() {
       @Override
       public void run() {
+        if (!savesInFlight.isEmpty()) {
+          SaveBatch oldestSave = savesInFlight.values().iterator().next();
+          if (System.currentTimeMillis() - oldestSave.startTime < SAVE_TIMEOUT) {
+            // The previous save hasn't finished yet. Wait for it rather than
+            // piling up another save on the server; the changes made meanwhile
+            // will go out together in the next save.
+            autoSaveTimer.schedule(autoSaveIdleTimeout);
+            return;
+          }
+          // The server never answered. Save those files again along with
+          // the others.
+          abandonSavesInFlight();
+          ErrorReporter.reportError(MESSAGES.saveErrorTimeout());
+        }
         // When the timer goes off, save all dirtyProjectSettings and
         // dirtyFileEditors.
         saveDirtyEditors(null);
@@ -130,7 +206,9 @@ public final class EditorManager {
         if (fileEditor != null) {
           dirtyFileEditors.remove(fileEditor);
         }
+        lastSentContents.remove(getFileKey(projectId, fileId));
       }
+      updateSaveQueueStatus();
       projectEditor.closeFileEditors(fileIds);
     }
   }
@@ -149,6 +227,12 @@ public final class EditorManager {
     ProjectSettings projectSettings = project.getSettings();
     dirtyProjectSettings.remove(projectSettings);
     openProjectEditors.remove(projectId);
+    String projectKeyPrefix = getFileKey(projectId, "");
+    for (Iterator<String> it = lastSentContents.keySet().iterator(); it.hasNext(); ) {
+      if (it.next().startsWith(projectKeyPrefix)) {
+        it.remove();
+      }
+    }
   }
 
   /**
@@ -171,10 +255,24 @@ public final class EditorManager {
    */
   public void scheduleAutoSave(FileEditor fileEditor) {
     // Add the file editor to the dirtyFileEditors list.
-    dirtyFileEditors.add(fileEditor);
+    if (dirtyFileEditors.add(fileEditor)) {
+      updateSaveQueueStatus();
+    }
     scheduleAutoSaveTimer();
   }
 
+  /**
+   * Forgets what was last sent to the server for the given file, so that its
+   * content is sent with the next save even if it looks unchanged. Must be
+   * called when the file is saved other than through this class.
+   *
+   * @param projectId  project ID
+   * @param fileId  file ID
+   */
+  public void forgetSavedContent(long projectId, String fileId) {
+    lastSentContents.remove(getFileKey(projectId, fileId));
+  }
+
   /**
    * Schedules the auto-save timer.
    */
@@ -187,12 +285,12 @@ public final class EditorManager {
       // reschedule the timer. Otherwise, leave the scheduled timer alone.
       if (System.currentTimeMillis() - autoSaveRequestTime < AUTO_SAVE_FORCED_TIMEOUT) {
         autoSaveTimer.cancel();
-        autoSaveTimer.schedule(AUTO_SAVE_IDLE_TIMEOUT);
+        autoSaveTimer.schedule(autoSaveIdleTimeout);
       }
     } else {
       // The auto-save timer is not already scheduled.
       // Schedule it now and set autoSaveRequestTime.
-      autoSaveTimer.schedule(AUTO_SAVE_IDLE_TIMEOUT);
+      autoSaveTimer.schedule(autoSaveIdleTimeout);
       autoSaveRequestTime = System.currentTimeMillis();
       autoSaveIsScheduled = true;
     }
@@ -211,14 +309,23 @@ public final class EditorManager {
    *                     settings and file editors are saved successfully
    */
   public void saveDirtyEditors(final Command afterSaving) {
-    // Collect the files that need to be saved.
+    // Collect the files that need to be saved, leaving out those whose content
+    // is the same as what the server has already saved. Content that is still
+    // being saved is sent again, since that save may yet fail.
     List<FileDescriptorWithContent> filesToSave = new ArrayList<FileDescriptorWithContent>();
     for (FileEditor fileEditor : dirtyFileEditors) {
+      String content = fileEditor.getRawFileContent();
+      SentContent sentContent =
+          lastSentContents.get(getFileKey(fileEditor.getProjectId(), fileEditor.getFileId()));
+      if (sentContent != null && sentContent.saved && content.equals(sentContent.content)) {
+        continue;
+      }
       FileDescriptorWithContent fileContent = new FileDescriptorWithContent(
-          fileEditor.getProjectId(), fileEditor.getFileId(), fileEditor.getRawFileContent());
+          fileEditor.getProjectId(), fileEditor.getFileId(), content);
       filesToSave.add(fileContent);
     }
     dirtyFileEditors.clear();
+    updateSaveQueueStatus();
 
     // Collect the project settings that need to be saved.
     List<ProjectSettings> projectSettingsToSave = new ArrayList<ProjectSettings>();
@@ -334,10 +441,21 @@ public final class EditorManager {
       }
 
     } else {
+      final SaveBatch save =
+          new SaveBatch(++saveSequence, filesWithContent, System.currentTimeMillis());
+      savesInFlight.put(save.sequence, save);
+      for (FileDescriptorWithContent fileDescriptor : filesWithContent) {
+        lastSentContents.put(
+            getFileKey(fileDescriptor.getProjectId(), fileDescriptor.getFileId()),
+            new SentContent(fileDescriptor.getContent(), save.sequence));
+      }
+      filesBeingSaved += filesWithContent.size();
+      updateSaveQueueStatus();
       Ode.getInstance().getProjectService().save(filesWithContent,
           new OdeAsyncCallback<Long>(MESSAGES.saveErrorMultipleFiles()) {
         @Override
         public void onSuccess(Long date) {
+          onSaveFinished(save, true);
           // Call the project editor's onSave method for each file that was saved and update the
           // project's modification date.
           for (FileDescriptorWithContent fileDescriptor : filesWithContent) {
@@ -354,7 +472,99 @@ public final class EditorManager {
             afterSavingFiles.execute();
           }
         }
+
+        @Override
+        public void onFailure(Throwable caught) {
+          onSaveFinished(save, false);
+          super.onFailure(caught);
+        }
       });
     }
   }
+
+  /*
+   * Updates what is known to have been saved, the save queue status and the
+   * auto-save idle timeout after a save RPC completes. The idle timeout backs
+   * off while the server is slow or failing and goes back to
+   * AUTO_SAVE_IDLE_TIMEOUT once it is fast again.
+   */
+  private void onSaveFinished(SaveBatch save, boolean succeeded) {
+    if (savesInFlight.remove(save.sequence) != null) {
+      filesBeingSaved -= save.files.size();
+    }
+    for (FileDescriptorWithContent fileDescriptor : save.files) {
+      String fileKey = getFileKey(fileDescriptor.getProjectId(), fileDescriptor.getFileId());
+      SentContent sentContent = lastSentContents.get(fileKey);
+      if (sentContent == null) {
+        continue;
+      }
+      if (sentContent.sequence == save.sequence) {
+        if (succeeded) {
+          sentContent.saved = true;
+        } else {
+          lastSentContents.remove(fileKey);
+        }
+      } else if (sentContent.sequence > save.sequence && sentContent.saved && succeeded) {
+        // A later save of this file finished first, so the server may now hold
+        // this older content. Save the file again.
+        lastSentContents.remove(fileKey);
+        resaveFile(fileDescriptor);
+      }
+    }
+    long elapsed = System.currentTimeMillis() - save.startTime;
+    if (!succeeded || elapsed > SLOW_SAVE_THRESHOLD) {
+      autoSaveIdleTimeout = Math.min(autoSaveIdleTimeout * 2, AUTO_SAVE_MAX_IDLE_TIMEOUT);
+    } else {
+      autoSaveIdleTimeout = AUTO_SAVE_IDLE_TIMEOUT;
+    }
+    updateSaveQueueStatus();
+  }
+
+  /*
+   * Stops waiting for the save RPCs that haven't completed and schedules
+   * their files to be saved again.
+   */
+  private void abandonSavesInFlight() {
+    for (SaveBatch save : savesInFlight.values()) {
+      for (FileDescriptorWithContent fileDescriptor : save.files) {
+        String fileKey = getFileKey(fileDescriptor.getProjectId(), fileDescriptor.getFileId());
+        SentContent sentContent = lastSentContents.get(fileKey);
+        if (sentContent != null && sentContent.sequence == save.sequence) {
+          lastSentContents.remove(fileKey);
+        }
+        resaveFile(fileDescriptor);
+      }
+    }
+    savesInFlight.clear();
+    filesBeingSaved = 0;
+    updateSaveQueueStatus();
+  }
+
+  /*
+   * Marks the editor of the given file, if it is still open, as needing to be
+   * saved.
+   */
+  private void resaveFile(FileDescriptorWithContent fileDescriptor) {
+    ProjectEditor projectEditor = openProjectEditors.get(fileDescriptor.getProjectId());
+    if (projectEditor != null) {
+      FileEditor fileEditor = projectEditor.getFileEditor(fileDescriptor.getFileId());
+      if (fileEditor != null) {
+        scheduleAutoSave(fileEditor);
+      }
+    }
+  }
+
+  /*
+   * Shows the number of files that are waiting to be saved or are being saved.
+   */
+  private void updateSaveQueueStatus() {
+    StatusPanel statusPanel = Ode.getInstance().getStatusPanel();
+    if (statusPanel != null) {
+      statusPanel.showSaveQueueDepth(dirtyFileEditors.size() + filesBeingSaved);
+    }
+  }
+
+  private static String getFileKey(long projectId, String fileId) {
+    return projectId + "/" + fileId;
+  }
 }
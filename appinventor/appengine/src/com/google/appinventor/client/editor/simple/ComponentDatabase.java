@@ -25,6 +25,10 @@ class ComponentDatabase implements ComponentDatabaseInterface {
 
   /*
    * Simple component information: component name, its properties
+   *
+   * The property tables and the type description are only needed once a
+   * component of this type is used, so they are built from the component's JSON
+   * descriptor the first time they are requested.
    */
   private static class Component {
     private final String name;
@@ -33,29 +37,63 @@ class ComponentDatabase implements ComponentDatabaseInterface {
     private final String helpString;
     private final boolean showOnPalette;
     private final String categoryDocUrlString;
-    private final List<PropertyDefinition> properties;
-    private final Map<String, String> propertiesTypesByName;
     private final boolean nonVisible;
     private final String iconName;
-    private final String typeDescription;
+    private JSONObject componentNode;  // null once properties and typeDescription are built
+    private List<PropertyDefinition> properties;
+    private Map<String, String> propertiesTypesByName;
+    private String typeDescription;
 
     Component(String name, int version, String categoryString, String helpString,
               boolean showOnPalette, boolean nonVisible, String iconName,
-              String typeDescription) {
+              JSONObject componentNode) {
       this.name = name;
       this.version = version;
       this.categoryString = categoryString;
       this.helpString = helpString;
       this.showOnPalette = showOnPalette;
       this.categoryDocUrlString = ComponentCategory.valueOf(categoryString).getDocName();
-      this.properties = new ArrayList<PropertyDefinition>();
-      this.propertiesTypesByName = new HashMap<String, String>();
       this.nonVisible = nonVisible;
       this.iconName = iconName;
-      this.typeDescription = typeDescription;
+      this.componentNode = componentNode;
+    }
+
+    List<PropertyDefinition> getProperties() {
+      ensureInitialized();
+      return properties;
+    }
+
+    Map<String, String> getPropertiesTypesByName() {
+      ensureInitialized();
+      return propertiesTypesByName;
+    }
+
+    String getTypeDescription() {
+      ensureInitialized();
+      return typeDescription;
     }
 
-    void add(PropertyDefinition property) {
+    /*
+     * Enters property information and the type description into the component
+     * descriptor.
+     */
+    private void ensureInitialized() {
+      if (componentNode != null) {
+        properties = new ArrayList<PropertyDefinition>();
+        propertiesTypesByName = new HashMap<String, String>();
+        for (JSONValue propertyValue :
+            componentNode.get("properties").asArray().getElements()) {
+          Map<String, JSONValue> property = propertyValue.asObject().getProperties();
+          add(new PropertyDefinition(property.get("name").asString().getString(),
+              property.get("defaultValue").asString().getString(),
+              property.get("editorType").asString().getString()));
+        }
+        typeDescription = componentNode.toJson();
+        componentNode = null;
+      }
+    }
+
+    private void add(PropertyDefinition property) {
       properties.add(property);
       propertiesTypesByName.put(property.getName(), property.getEditorType());
     }
@@ -156,7 +194,7 @@ class ComponentDatabase implements ComponentDatabaseInterface {
       throw new IllegalArgumentException();
     }
 
-    return component.properties;
+    return component.getProperties();
   }
 
   @Override
@@ -166,7 +204,7 @@ class ComponentDatabase implements ComponentDatabaseInterface {
       throw new IllegalArgumentException();
     }
 
-    return component.propertiesTypesByName;
+    return component.getPropertiesTypesByName();
   }
 
   @Override
@@ -176,7 +214,7 @@ class ComponentDatabase implements ComponentDatabaseInterface {
       throw new IllegalArgumentException();
     }
 
-    return component.typeDescription;
+    return component.getTypeDescription();
   }
 
   /*
@@ -193,20 +231,7 @@ class ComponentDatabase implements ComponentDatabaseInterface {
         Boolean.valueOf(properties.get("showOnPalette").asString().getString()),
         Boolean.valueOf(properties.get("nonVisible").asString().getString()),
         properties.get("iconName").asString().getString(),
-        componentNode.toJson());
-    findComponentProperties(component, properties.get("properties").asArray());
+        componentNode);
     components.put(component.name, component);
   }
-
-  /*
-   * Enters property information into the component descriptor.
-   */
-  private void findComponentProperties(Component component, JSONArray propertiesArray) {
-    for (JSONValue propertyValue : propertiesArray.getElements()) {
-      Map<String, JSONValue> properties = propertyValue.asObject().getProperties();
-      component.add(new PropertyDefinition(properties.get("name").asString().getString(),
-          properties.get("defaultValue").asString().getString(),
-          properties.get("editorType").asString().getString()));
-    }
-  }
 }
@@ -20,6 +20,12 @@ abstract class LayoutInfo {
   int width;   // Does not include the MockComponent's CSS border
   int height;  // Does not include the MockComponent's CSS border
 
+  // The automatic width and height are measured at most once per layout, since
+  // measuring a component (and, for a container, all of its children) is expensive.
+  private static final int NOT_MEASURED = Integer.MIN_VALUE;
+  private int automaticWidth = NOT_MEASURED;
+  private int automaticHeight = NOT_MEASURED;
+
   protected LayoutInfo(Map<MockComponent, LayoutInfo> layoutInfoMap, MockComponent component) {
     this.layoutInfoMap = layoutInfoMap;
     this.component = component;
@@ -44,11 +50,33 @@ abstract class LayoutInfo {
   }
 
   void calculateAndStoreAutomaticWidth() {
-    width = calculateAutomaticWidth();
+    width = getAutomaticWidth();
   }
 
   void calculateAndStoreAutomaticHeight() {
-    height = calculateAutomaticHeight();
+    height = getAutomaticHeight();
+  }
+
+  /**
+   * Returns the automatic width of the component, calculating it the first
+   * time it is requested.
+   */
+  final int getAutomaticWidth() {
+    if (automaticWidth == NOT_MEASURED) {
+      automaticWidth = calculateAutomaticWidth();
+    }
+    return automaticWidth;
+  }
+
+  /**
+   * Returns the automatic height of the component, calculating it the first
+   * time it is requested.
+   */
+  final int getAutomaticHeight() {
+    if (automaticHeight == NOT_MEASURED) {
+      automaticHeight = calculateAutomaticHeight();
+    }
+    return automaticHeight;
   }
 
   abstract int calculateAutomaticWidth();
@@ -877,12 +877,14 @@ public abstract class MockComponent extends Composite implements PropertyChangeL
    * Refreshes the form.
    *
    * <p>This method should be called whenever a property that affects the size
-   * of the component is changed.
+   * of the component is changed. The layout itself is deferred, so that several
+   * changes made together (for example, while a form is being loaded) only cause
+   * one layout of the form.
    */
   final void refreshForm() {
     if (isAttached()) {
       if (getContainer() != null || isForm()) {
-        getForm().refresh();
+        getForm().scheduleRefresh();
       }
     }
   }
@@ -18,6 +18,7 @@ import com.google.appinventor.client.editor.youngandroid.properties.YoungAndroid
 import com.google.appinventor.client.output.OdeLog;
 import com.google.appinventor.client.properties.BadPropertyEditorException;
 import com.google.appinventor.shared.settings.SettingsConstants;
+import com.google.gwt.core.client.Scheduler;
 import com.google.gwt.dom.client.DivElement;
 import com.google.gwt.dom.client.Document;
 import com.google.gwt.dom.client.Element;
@@ -133,6 +134,9 @@ public final class MockForm extends MockContainer {
   private int screenHeight;
   private int usableScreenHeight;
 
+  // Whether a deferred call to refresh() is pending; see scheduleRefresh().
+  private boolean refreshScheduled;
+
   // Set of listeners for any changes of the form
   final HashSet<FormChangeListener> formChangeListeners = new HashSet<FormChangeListener>();
 
@@ -422,10 +426,32 @@ public final class MockForm extends MockContainer {
     }
   }
 
+  /**
+   * Schedules a re-layout of the child components of the container, unless one
+   * is already scheduled. The layout happens after the current event has been
+   * handled.
+   */
+  final void scheduleRefresh() {
+    if (!refreshScheduled) {
+      refreshScheduled = true;
+      Scheduler.get().scheduleDeferred(new Scheduler.ScheduledCommand() {
+        @Override
+        public void execute() {
+          // refresh() may have been called directly in the meantime.
+          if (refreshScheduled) {
+            refresh();
+          }
+        }
+      });
+    }
+  }
+
   /**
    * Forces a re-layout of the child components of the container.
    */
   public final void refresh() {
+    refreshScheduled = false;
+
     Map<MockComponent, LayoutInfo> layoutInfoMap = new HashMap<MockComponent, LayoutInfo>();
 
     collectLayoutInfos(layoutInfoMap, this);
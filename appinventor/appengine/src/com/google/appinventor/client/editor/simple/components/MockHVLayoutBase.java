@@ -277,7 +277,7 @@ abstract class MockHVLayoutBase extends MockLayout {
     if (allFillParent) {
       for (MockComponent child : containerLayoutInfo.visibleChildren) {
         LayoutInfo childLayoutInfo = containerLayoutInfo.layoutInfoMap.get(child);
-        int childWidth = childLayoutInfo.calculateAutomaticWidth();
+        int childWidth = childLayoutInfo.getAutomaticWidth();
         width = Math.max(width, childWidth + BORDER_SIZE);
       }
     }
@@ -292,7 +292,7 @@ abstract class MockHVLayoutBase extends MockLayout {
       LayoutInfo childLayoutInfo = containerLayoutInfo.layoutInfoMap.get(child);
       // If the height is fill parent, use automatic height.
       int childHeight = (childLayoutInfo.height == MockVisibleComponent.LENGTH_FILL_PARENT)
-          ? childLayoutInfo.calculateAutomaticHeight()
+          ? childLayoutInfo.getAutomaticHeight()
           : childLayoutInfo.height;
       height += childHeight + BORDER_SIZE;
     }
@@ -433,7 +433,7 @@ abstract class MockHVLayoutBase extends MockLayout {
     if (allFillParent) {
       for (MockComponent child : containerLayoutInfo.visibleChildren) {
         LayoutInfo childLayoutInfo = containerLayoutInfo.layoutInfoMap.get(child);
-        int childHeight = childLayoutInfo.calculateAutomaticHeight();
+        int childHeight = childLayoutInfo.getAutomaticHeight();
         height = Math.max(height, childHeight + BORDER_SIZE);
       }
     }
@@ -458,7 +458,7 @@ abstract class MockHVLayoutBase extends MockLayout {
       LayoutInfo childLayoutInfo = containerLayoutInfo.layoutInfoMap.get(child);
       // If the width is fill parent, use automatic width.
       int childWidth = (childLayoutInfo.width == MockVisibleComponent.LENGTH_FILL_PARENT)
-          ? childLayoutInfo.calculateAutomaticWidth()
+          ? childLayoutInfo.getAutomaticWidth()
               : childLayoutInfo.width;
           width += childWidth + BORDER_SIZE;
     }
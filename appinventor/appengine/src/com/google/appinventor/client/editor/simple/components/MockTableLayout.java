@@ -271,7 +271,7 @@ final class MockTableLayout extends MockLayout {
 
           // Use automatic width for children whose width is fill parent.
           int childWidth = (childLayoutInfo.width == MockVisibleComponent.LENGTH_FILL_PARENT)
-              ? childLayoutInfo.calculateAutomaticWidth()
+              ? childLayoutInfo.getAutomaticWidth()
               : childLayoutInfo.width;
           colWidths[col] = Math.max(colWidths[col], childWidth + BORDER_SIZE);
 
@@ -294,7 +294,7 @@ final class MockTableLayout extends MockLayout {
           MockComponent cellChild = tableLayoutInfo.cellChildren[row][col];
           if (cellChild != null) {
             LayoutInfo childLayoutInfo = tableLayoutInfo.layoutInfoMap.get(cellChild);
-            int childHeight = childLayoutInfo.calculateAutomaticHeight();
+            int childHeight = childLayoutInfo.getAutomaticHeight();
             rowHeights[row] = Math.max(rowHeights[row], childHeight + BORDER_SIZE);
           }
         }
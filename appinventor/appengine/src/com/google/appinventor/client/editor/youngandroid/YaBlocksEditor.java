@@ -140,6 +140,14 @@ public final class YaBlocksEditor extends FileEditor
 
   @Override
   public void loadFile(final Command afterFileLoaded) {
+    loadFile(afterFileLoaded, null);
+  }
+
+  /**
+   * Loads the file like {@link #loadFile(Command)}, and executes
+   * afterLoadFailed if the file can't be loaded.
+   */
+  public void loadFile(final Command afterFileLoaded, final Command afterLoadFailed) {
     OdeAsyncCallback<String> callback = new OdeAsyncCallback<String>(MESSAGES.loadError()) {
       @Override
       public void onSuccess(String blkFileContent) {
@@ -150,6 +158,14 @@ public final class YaBlocksEditor extends FileEditor
           afterFileLoaded.execute();
         }
       }
+
+      @Override
+      public void onFailure(Throwable caught) {
+        super.onFailure(caught);
+        if (afterLoadFailed != null) {
+          afterLoadFailed.execute();
+        }
+      }
     };
     Ode.getInstance().getProjectService().load(getProjectId(), getFileId(), callback);
   }
@@ -153,6 +153,14 @@ public final class YaFormEditor extends SimpleEditor implements FormChangeListen
 
   @Override
   public void loadFile(final Command afterFileLoaded) {
+    loadFile(afterFileLoaded, null);
+  }
+
+  /**
+   * Loads the file like {@link #loadFile(Command)}, and executes
+   * afterLoadFailed if the file can't be loaded or upgraded.
+   */
+  public void loadFile(final Command afterFileLoaded, final Command afterLoadFailed) {
     OdeAsyncCallback<String> callback = new OdeAsyncCallback<String>(MESSAGES.loadError()) {
       @Override
       public void onSuccess(String result) {
@@ -165,7 +173,15 @@ public final class YaFormEditor extends SimpleEditor implements FormChangeListen
               afterFileLoaded.execute();
             }
           }
-        });
+        }, afterLoadFailed);
+      }
+
+      @Override
+      public void onFailure(Throwable caught) {
+        super.onFailure(caught);
+        if (afterLoadFailed != null) {
+          afterLoadFailed.execute();
+        }
       }
     };
     Ode.getInstance().getProjectService().load(getProjectId(), getFileId(), callback);
@@ -342,13 +358,16 @@ public final class YaFormEditor extends SimpleEditor implements FormChangeListen
    *                              server
    */
   private void upgradeFile(FileContentHolder fileContentHolder,
-      final Command afterUpgradeComplete) {
+      final Command afterUpgradeComplete, final Command afterUpgradeFailed) {
     JSONObject propertiesObject = YoungAndroidSourceAnalyzer.parseSourceFile(
         fileContentHolder.getFileContent(), JSON_PARSER);
     if (YoungAndroidFormUpgrader.upgradeSourceProperties(propertiesObject.getProperties())) {
       String upgradedContent = YoungAndroidSourceAnalyzer.generateSourceFile(propertiesObject);
       fileContentHolder.setFileContent(upgradedContent);
 
+      // This save doesn't go through the EditorManager, so it must not
+      // assume that it knows what the server holds for this file.
+      Ode.getInstance().getEditorManager().forgetSavedContent(getProjectId(), getFileId());
       Ode.getInstance().getProjectService().save(getProjectId(), getFileId(), upgradedContent,
           new OdeAsyncCallback<Long>(MESSAGES.saveError()) {
             @Override
@@ -358,6 +377,14 @@ public final class YaFormEditor extends SimpleEditor implements FormChangeListen
                 afterUpgradeComplete.execute();
               }
             }
+
+            @Override
+            public void onFailure(Throwable caught) {
+              super.onFailure(caught);
+              if (afterUpgradeFailed != null) {
+                afterUpgradeFailed.execute();
+              }
+            }
           });
     } else {
       // No upgrade was necessary.
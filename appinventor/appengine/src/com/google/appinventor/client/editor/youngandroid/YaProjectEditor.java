@@ -28,6 +28,8 @@ import com.google.gwt.user.client.Command;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
 
 /**
  * Project editor for Young Android projects. Each instance corresponds to
@@ -62,6 +64,9 @@ public final class YaProjectEditor extends ProjectEditor implements ProjectChang
   private boolean screen1FormLoaded = false;
   private boolean screen1BlocksLoaded = false;
   private boolean screen1Added = false;
+
+  // Whether the editors for the screens other than Screen1 have been added.
+  private boolean otherScreensLoaded = false;
   
   /**
    * Returns a project editor factory for {@code YaProjectEditor}s.
@@ -84,21 +89,47 @@ public final class YaProjectEditor extends ProjectEditor implements ProjectChang
 
   @Override
   public void loadProject() {
+    // Load Screen1 first, so that it can be shown without waiting for the
+    // other screens. The other screens are loaded once Screen1 is ready, or
+    // once it has failed to load (see loadOtherScreens).
+    addScreens(true);
+    EditorSet screen1Editors = editorMap.get(YoungAndroidSourceNode.SCREEN1_FORM_NAME);
+    if (screen1Editors == null || screen1Editors.formEditor == null
+        || screen1Editors.blocksEditor == null) {
+      // Screen1 will never be ready, so don't wait for it.
+      loadOtherScreens();
+    }
+  }
+
+  /*
+   * Adds the editors for Screen1 (if screen1 is true) or for all the other
+   * screens (if screen1 is false), and adds the screens to the design toolbar.
+   */
+  private void addScreens(boolean screen1) {
     // add form editors first, then blocks editors because the blocks editors
-    // need access to their corresponding form editors to set up properly
+    // need access to their corresponding form editors to set up properly.
+    // Screens added while Screen1 was loading (see onProjectNodeAdded) already
+    // have their editors and are already on the design toolbar.
+    Set<String> addedFormNames = new HashSet<String>();
     for (ProjectNode source : projectRootNode.getAllSourceNodes()) {
-      if (source instanceof YoungAndroidFormNode) {
+      if (source instanceof YoungAndroidFormNode
+          && isScreen1(((YoungAndroidFormNode) source).getFormName()) == screen1
+          && getFileEditor(source.getFileId()) == null) {
         addFormEditor((YoungAndroidFormNode) source);
+        addedFormNames.add(((YoungAndroidFormNode) source).getFormName());
       } 
     }
     for (ProjectNode source : projectRootNode.getAllSourceNodes()) {
-      if (source instanceof YoungAndroidBlocksNode) {
+      if (source instanceof YoungAndroidBlocksNode
+          && isScreen1(((YoungAndroidBlocksNode) source).getFormName()) == screen1
+          && getFileEditor(source.getFileId()) == null) {
         addBlocksEditor((YoungAndroidBlocksNode) source);
+        addedFormNames.add(((YoungAndroidBlocksNode) source).getFormName());
       }
     }
     // Add the screens to the design toolbar, along with their associated editors
     DesignToolbar designToolbar = Ode.getInstance().getDesignToolbar();
-    for (String formName : editorMap.keySet()) {
+    for (String formName : addedFormNames) {
       EditorSet editors = editorMap.get(formName);
       if (editors.formEditor != null && editors.blocksEditor != null) {
         designToolbar.addScreen(projectRootNode.getProjectId(), formName, editors.formEditor, 
@@ -119,7 +150,20 @@ public final class YaProjectEditor extends ProjectEditor implements ProjectChang
       }
     }
   }
-  
+
+  /*
+   * Loads the editors for all screens other than Screen1. Called once, after
+   * both of the Screen1 editors have finished loading or one of them has failed to.
+   */
+  private void loadOtherScreens() {
+    if (!otherScreensLoaded) {
+      otherScreensLoaded = true;
+      OdeLog.log("YaProjectEditor: loading other screens for project "
+          + projectRootNode.getProjectId());
+      addScreens(false);
+    }
+  }
+
   @Override
   protected void onShow() {
     OdeLog.log("YaProjectEditor got onShow() for project " + projectId);
@@ -311,11 +355,30 @@ public final class YaProjectEditor extends ProjectEditor implements ProjectChang
             Ode.getInstance().getDesignToolbar().switchToScreen(newFormEditor.getProjectId(),
                 formName, DesignToolbar.View.FORM);
           }
+          if (screen1FormLoaded && screen1BlocksLoaded) {
+            loadOtherScreens();
+          }
         }
       }
-    });
+    }, loadFailedCommand(formName));
   }
     
+  /*
+   * Returns the command to execute if an editor for formName fails to load.
+   * If it is one of Screen1's editors, Screen1 will never be ready, so the
+   * other screens shouldn't keep waiting for it.
+   */
+  private Command loadFailedCommand(final String formName) {
+    return new Command() {
+      @Override
+      public void execute() {
+        if (isScreen1(formName)) {
+          loadOtherScreens();
+        }
+      }
+    };
+  }
+
   private boolean readyToShowScreen1() {
     return screen1FormLoaded && screen1BlocksLoaded && screen1Added;
   }
@@ -349,9 +412,12 @@ public final class YaProjectEditor extends ProjectEditor implements ProjectChang
             Ode.getInstance().getDesignToolbar().switchToScreen(newBlocksEditor.getProjectId(),
                 formName, DesignToolbar.View.FORM);
           }
+          if (screen1FormLoaded && screen1BlocksLoaded) {
+            loadOtherScreens();
+          }
         }
       }
-    });
+    }, loadFailedCommand(formName));
   }
   
   private void removeFormEditor(String formName) {
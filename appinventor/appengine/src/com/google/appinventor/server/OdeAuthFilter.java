@@ -5,6 +5,9 @@
 
 package com.google.appinventor.server;
 
+import com.google.appengine.api.memcache.Expiration;
+import com.google.appengine.api.memcache.MemcacheService;
+import com.google.appengine.api.memcache.MemcacheServiceFactory;
 import com.google.appengine.api.users.UserService;
 import com.google.appengine.api.users.UserServiceFactory;
 import com.google.appinventor.server.flags.Flag;
@@ -16,6 +19,7 @@ import com.google.common.annotations.VisibleForTesting;
 
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.io.Serializable;
 import java.util.logging.Logger;
 
 import javax.servlet.Filter;
@@ -53,8 +57,38 @@ public class OdeAuthFilter implements Filter {
   @VisibleForTesting
   static final Flag<Boolean> useWhitelist = Flag.createFlag("use.whitelist", false);
 
+  // How long, in seconds, the resolved user state (stored user, terms of service
+  // acceptance and whitelist status) is cached in memcache. While an entry is live,
+  // authenticating a request does not touch the datastore. 0 disables the cache.
+  // Value is specified in the <system-properties> section of appengine-web.xml.
+  @VisibleForTesting
+  static final Flag<Integer> userCacheSecs = Flag.createFlag("user.cache.secs", 60);
+
+  private static final String USER_CACHE_PREFIX = "OdeAuthFilter.user:";
+  private static final String WHITELIST_CACHE_PREFIX = "OdeAuthFilter.whitelist:";
+
+  private static final MemcacheService memcache = MemcacheServiceFactory.getMemcacheService();
+
   private final LocalUser localUser = LocalUser.getInstance();
 
+  /**
+   * The part of a {@link User} that is cached between requests. {@link User} is
+   * only GWT-serializable, so it can't be put into memcache directly.
+   */
+  private static class CachedUser implements Serializable {
+    private static final long serialVersionUID = 4361094736206578131L;
+
+    private final String userId;
+    private final String email;
+    private final boolean tosAccepted;
+
+    CachedUser(User user) {
+      userId = user.getUserId();
+      email = user.getUserEmail();
+      tosAccepted = user.getUserTosAccepted();
+    }
+  }
+
   /**
    * Filters using Google Accounts
    */
@@ -111,7 +145,23 @@ public class OdeAuthFilter implements Filter {
   @VisibleForTesting
   boolean isUserWhitelisted() {
     //return whitelist.isInWhitelist(localUser);
-    return storageIo.checkWhiteList(localUser.getUserEmail());
+    String email = localUser.getUserEmail();
+    String key = WHITELIST_CACHE_PREFIX + email;
+    if (getCached(key) != null) {
+      return true;
+    }
+    // Only users found on the whitelist are cached. Users are added to the whitelist
+    // directly in the datastore, so a cached rejection couldn't be invalidated.
+    boolean whitelisted = lookUpWhitelist(email);
+    if (whitelisted) {
+      putCached(key, Boolean.TRUE);
+    }
+    return whitelisted;
+  }
+
+  @VisibleForTesting
+  boolean lookUpWhitelist(String email) {
+    return storageIo.checkWhiteList(email);
   }
 
   @VisibleForTesting
@@ -131,11 +181,21 @@ public class OdeAuthFilter implements Filter {
       String userId = apiUser.getUserId();
       String email = apiUser.getEmail();
       email = idmap.get(email);	// Map the user.
-      User user = storageIo.getUser(userId, email);
-      user.setIsAdmin(userService.isUserAdmin());
-      if (!email.equals(user.getUserEmail())) {
-        user.setUserEmail(email);
+      String key = USER_CACHE_PREFIX + userId;
+      User user;
+      CachedUser cachedUser = (CachedUser) getCached(key);
+      if (cachedUser != null && email.equals(cachedUser.email)) {
+        user = new User(cachedUser.userId, cachedUser.email, cachedUser.tosAccepted, false);
+      } else {
+        // Either there is no cached entry or the email address changed, in which
+        // case storageIo.getUser will update the stored address.
+        user = storageIo.getUser(userId, email);
+        if (!email.equals(user.getUserEmail())) {
+          user.setUserEmail(email);
+        }
+        putCached(key, new CachedUser(user));
       }
+      user.setIsAdmin(userService.isUserAdmin());
       localUser.set(user);
       return true;
     } else {
@@ -143,6 +203,47 @@ public class OdeAuthFilter implements Filter {
     }
   }
 
+  /**
+   * Drops the cached state of the given user, so that the next request from that
+   * user goes back to the datastore.
+   *
+   * <p>This method is called from {@link TosServlet} after the user has accepted
+   * the terms of service.
+   *
+   * @param userId user id
+   */
+  static void invalidateCachedUser(String userId) {
+    try {
+      memcache.delete(USER_CACHE_PREFIX + userId);
+    } catch (RuntimeException e) {
+      LOG.warning("Unable to remove cached user " + userId + " from memcache: " + e);
+    }
+  }
+
+  private static Object getCached(String key) {
+    if (userCacheSecs.get() <= 0) {
+      return null;
+    }
+    try {
+      return memcache.get(key);
+    } catch (RuntimeException e) {
+      // memcache is only an optimization; fall back to the datastore.
+      LOG.warning("Unable to read " + key + " from memcache: " + e);
+      return null;
+    }
+  }
+
+  private static void putCached(String key, Object value) {
+    if (userCacheSecs.get() <= 0) {
+      return;
+    }
+    try {
+      memcache.put(key, value, Expiration.byDeltaSeconds(userCacheSecs.get()));
+    } catch (RuntimeException e) {
+      LOG.warning("Unable to write " + key + " to memcache: " + e);
+    }
+  }
+
   /*
    * Sets the user for the current thread according to the given userId.
    *
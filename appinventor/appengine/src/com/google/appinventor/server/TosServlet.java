@@ -38,7 +38,9 @@ public class TosServlet extends OdeServlet {
   public void doPost(HttpServletRequest req, HttpServletResponse resp)
       throws IOException {
 
-    storageIo.setTosAccepted(LocalUser.getInstance().getUserId());
+    String userId = LocalUser.getInstance().getUserId();
+    storageIo.setTosAccepted(userId);
+    OdeAuthFilter.invalidateCachedUser(userId);
 
     // Redirect the user to the initialRedirectionUrl (the 'About' page, by default).
     resp.sendRedirect(initialRedirectionUrl.get());
@@ -7,6 +7,7 @@ package com.google.appinventor.server;
 
 import com.google.appinventor.common.testutils.TestUtils;
 
+import com.google.appengine.tools.development.Clock;
 import com.google.appengine.tools.development.testing.LocalDatastoreServiceTestConfig;
 import com.google.appengine.tools.development.testing.LocalServiceTestHelper;
 import com.google.apphosting.utils.config.GenerationDirectory;
@@ -37,6 +38,14 @@ public abstract class LocalDatastoreTestCase extends TestCase {
     helper.tearDown();
   }
 
+  /**
+   * Sets the clock used by the local services, for example to expire memcache entries.
+   * Must be called before <code>setUp</code>.
+   */
+  public void setClock(Clock clock) {
+    helper.setClock(clock);
+  }
+
   /**
    * Tests that create multiple threads should call <code>setUpThread</code> for each thread.
    */
@@ -6,6 +6,7 @@ package com.google.appinventor.server;
 
 import static org.easymock.EasyMock.expect;
 
+import com.google.appengine.tools.development.Clock;
 import com.google.appinventor.common.testutils.TestUtils;
 
 import static junit.framework.Assert.*;
@@ -39,9 +40,16 @@ public class OdeAuthFilterTest {
   private HttpServletRequest mockServletRequest;
   private HttpServletResponse mockServletResponse;
   private LocalUser localUserMock;
+  private long now = 1000000L;
 
   @Before
   public void setUp() throws Exception {
+    helper.setClock(new Clock() {
+      @Override
+      public long getCurrentTime() {
+        return now;
+      }
+    });
     helper.setUp();
     localUserMock = PowerMock.createMock(LocalUser.class);
     PowerMock.mockStatic(LocalUser.class);
@@ -53,6 +61,7 @@ public class OdeAuthFilterTest {
 
   @After
   public void tearDown() throws Exception {
+    OdeAuthFilter.userCacheSecs.setForTest(60);
     helper.tearDown();
     PowerMock.resetAll();
   }
@@ -133,4 +142,79 @@ public class OdeAuthFilterTest {
     // getUserTosAccepted should not have been called.
     PowerMock.verifyAll();
   }
+
+  @Test
+  public void testIsUserWhitelistedShouldUseCachedResult() throws Exception {
+    expect(localUserMock.getUserEmail()).andReturn("kerr@google.com").anyTimes();
+    PowerMock.replayAll();
+    OdeAuthFilter.userCacheSecs.setForTest(60);
+
+    CountingAuthFilter myAuthFilter = new CountingAuthFilter(true);
+    assertTrue(myAuthFilter.isUserWhitelisted());
+    assertTrue(myAuthFilter.isUserWhitelisted());
+
+    // The second call should have been answered from the cache.
+    assertEquals(1, myAuthFilter.lookUpWhitelistCounter.get());
+  }
+
+  @Test
+  public void testIsUserWhitelistedShouldLookUpAgainAfterCacheExpires() throws Exception {
+    expect(localUserMock.getUserEmail()).andReturn("kerr@google.com").anyTimes();
+    PowerMock.replayAll();
+    OdeAuthFilter.userCacheSecs.setForTest(60);
+
+    CountingAuthFilter myAuthFilter = new CountingAuthFilter(true);
+    assertTrue(myAuthFilter.isUserWhitelisted());
+    now += 61 * 1000L;
+    assertTrue(myAuthFilter.isUserWhitelisted());
+
+    assertEquals(2, myAuthFilter.lookUpWhitelistCounter.get());
+  }
+
+  @Test
+  public void testIsUserWhitelistedShouldNotCacheRejection() throws Exception {
+    expect(localUserMock.getUserEmail()).andReturn("kerry@google.com").anyTimes();
+    PowerMock.replayAll();
+    OdeAuthFilter.userCacheSecs.setForTest(60);
+
+    CountingAuthFilter myAuthFilter = new CountingAuthFilter(false);
+    assertFalse(myAuthFilter.isUserWhitelisted());
+    // The user is added to the whitelist.
+    myAuthFilter.whitelisted = true;
+    assertTrue(myAuthFilter.isUserWhitelisted());
+
+    assertEquals(2, myAuthFilter.lookUpWhitelistCounter.get());
+  }
+
+  @Test
+  public void testIsUserWhitelistedShouldNotCacheIfCacheDisabled() throws Exception {
+    expect(localUserMock.getUserEmail()).andReturn("kerr@google.com").anyTimes();
+    PowerMock.replayAll();
+    OdeAuthFilter.userCacheSecs.setForTest(0);
+
+    CountingAuthFilter myAuthFilter = new CountingAuthFilter(true);
+    assertTrue(myAuthFilter.isUserWhitelisted());
+    assertTrue(myAuthFilter.isUserWhitelisted());
+
+    assertEquals(2, myAuthFilter.lookUpWhitelistCounter.get());
+  }
+
+  /**
+   * An OdeAuthFilter whose whitelist lookups are counted rather than sent to
+   * the datastore.
+   */
+  private static class CountingAuthFilter extends OdeAuthFilter {
+    private final AtomicInteger lookUpWhitelistCounter = new AtomicInteger(0);
+    private boolean whitelisted;
+
+    CountingAuthFilter(boolean whitelisted) {
+      this.whitelisted = whitelisted;
+    }
+
+    @Override
+    boolean lookUpWhitelist(String email) {
+      lookUpWhitelistCounter.incrementAndGet();
+      return whitelisted;
+    }
+  }
 }
@@ -7,45 +7,54 @@ package com.google.appinventor.blockseditor.jsonp;
 
 import com.google.appinventor.common.jsonp.JsonpConstants;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
-import java.io.OutputStreamWriter;
-import java.io.PrintWriter;
+import java.io.PushbackInputStream;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketException;
+import java.net.SocketTimeoutException;
 import java.net.URLDecoder;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.Timer;
 import java.util.TimerTask;
-import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Extremely simple HTTP server.
  *
- * <p>Listens on a single port. Requests are handled one at a time, in the order
- * they are received. All replies must be content type text.
+ * <p>Listens on a single port. Connections are handled by a small, fixed pool
+ * of worker threads, so a slow request (saving the blocks, generating yail)
+ * doesn't hold up independent requests from the browser. Connections are kept
+ * alive between requests when the client asks for it, but an idle connection
+ * gives up its worker as soon as another connection is waiting for one. All
+ * replies must be content type text.
  *
  * @author lizlooney@google.com (Liz Looney)
  */
 public final class HttpServer {
   /**
-   * The Producer thread accepts connections and puts them in the connection
-   * queue.
+   * The Producer thread accepts connections and hands them to the worker pool.
    */
   class Producer implements Runnable {
     private final ServerSocket serverSocket;
-    private final BlockingQueue<Socket> connectionQueue;
 
-    private Producer(ServerSocket serverSocket, BlockingQueue<Socket> connectionQueue) {
+    private Producer(ServerSocket serverSocket) {
       this.serverSocket = serverSocket;
-      this.connectionQueue = connectionQueue;
     }
 
     @Override
@@ -54,7 +63,8 @@ public final class HttpServer {
         Socket socket = null;
         try {
           socket = serverSocket.accept();
-          socket.setSoTimeout(30 * 1000); // ??? why not 0 (infinite)?
+          socket.setSoTimeout(REQUEST_TIMEOUT_MILLIS);
+          socket.setTcpNoDelay(true);
         } catch (SocketException e) {
           // SocketException is thrown if the main thread calls ServerSocket.close().
           // We'll check the shutDown field at the top of while-loop to see if we are finished.
@@ -65,15 +75,11 @@ public final class HttpServer {
         }
 
         if (socket != null) {
-          cancelConnectivityTimerTask();
-          setConnectivityStatus(true);
-
           try {
-            connectionQueue.put(socket);
-          } catch (InterruptedException e) {
-            if (LOG_TO_SYSTEM_OUT) {
-              e.printStackTrace(System.out);
-            }
+            workers.execute(new Connection(socket));
+          } catch (RejectedExecutionException e) {
+            // The worker pool has been shut down.
+            closeQuietly(socket);
           }
         }
       }
@@ -81,44 +87,108 @@ public final class HttpServer {
   }
 
   /**
-   * The Consumer thread takes requests from the connection queue and handles
-   * them.
+   * Handles the requests that arrive on one connection, on a worker thread.
    */
-  class Consumer implements Runnable {
-    private final BlockingQueue<Socket> connectionQueue;
+  class Connection implements Runnable {
+    private final Socket socket;
 
-    private Consumer(BlockingQueue<Socket> connectionQueue) {
-      this.connectionQueue = connectionQueue;
+    private Connection(Socket socket) {
+      this.socket = socket;
     }
 
     @Override
     public void run() {
-      while (!shutDown) {
-        Socket socket = null;
-        try {
-          socket = connectionQueue.take();
-        } catch (InterruptedException e) {
-          if (LOG_TO_SYSTEM_OUT) {
-            e.printStackTrace(System.out);
+      synchronized (openConnections) {
+        openConnections.add(socket);
+      }
+      try {
+        PushbackInputStream inputStream = new PushbackInputStream(socket.getInputStream());
+        BufferedReader reader = new BufferedReader(
+            new InputStreamReader(inputStream, "UTF-8"));
+        OutputStream outputStream = new BufferedOutputStream(socket.getOutputStream());
+        int requestCount = 0;
+        boolean keepAlive = true;
+        while (keepAlive && !shutDown) {
+          // Wait for the next request. Once a request has been answered, don't
+          // hold on to this worker while another connection is waiting for one.
+          boolean idle = requestCount > 0;
+          if (!awaitRequest(inputStream, reader, idle)) {
+            break;
           }
-        }
-        if (socket != null) {
-          // Handle the connection, and catch any exceptions that get thrown.
+          Request request;
           try {
-            processRequest(socket);
-          } catch (Throwable e) {
-            if (LOG_TO_SYSTEM_OUT) {
-              e.printStackTrace(System.out);
-            }
+            request = readHttpRequest(reader);
+          } catch (SocketTimeoutException e) {
+            // The client stopped sending in the middle of a request.
+            break;
+          }
+          if (request == null) {
+            // The client closed the connection.
+            break;
           }
+          requestCount++;
+          // Hold on to this worker only if no other connection is waiting for one.
+          keepAlive = request.keepAlive && requestCount < MAX_REQUESTS_PER_CONNECTION
+              && workers.getQueue().isEmpty();
+          requestStarted();
+          try {
+            processRequest(request, outputStream, keepAlive);
+          } finally {
+            requestFinished();
+          }
+        }
+      } catch (SocketException e) {
+        // SocketException is thrown if the main thread closes the socket during shut down.
+        if (LOG_TO_SYSTEM_OUT && !shutDown) {
+          e.printStackTrace(System.out);
+        }
+      } catch (Throwable e) {
+        if (LOG_TO_SYSTEM_OUT) {
+          e.printStackTrace(System.out);
+        }
+      } finally {
+        synchronized (openConnections) {
+          openConnections.remove(socket);
+        }
+        closeQuietly(socket);
+      }
+    }
+
+    /**
+     * Waits until the client starts sending a request. An idle kept-alive
+     * connection polls, so that it can be given up as soon as another
+     * connection is waiting for a worker.
+     *
+     * @return true if data has arrived, false if the connection should be closed
+     */
+    private boolean awaitRequest(PushbackInputStream inputStream, BufferedReader reader,
+        boolean idle) throws IOException {
+      if (reader.ready()) {
+        return true;
+      }
+      long deadline = System.currentTimeMillis()
+          + (idle ? KEEP_ALIVE_TIMEOUT_MILLIS : REQUEST_TIMEOUT_MILLIS);
+      socket.setSoTimeout(IDLE_POLL_INTERVAL_MILLIS);
+      try {
+        while (true) {
           try {
-            socket.close();
-          } catch (IOException e) {
-            if (LOG_TO_SYSTEM_OUT) {
-              e.printStackTrace(System.out);
+            int b = inputStream.read();
+            if (b == -1) {
+              // The client closed the connection.
+              return false;
+            }
+            inputStream.unread(b);
+            return true;
+          } catch (SocketTimeoutException e) {
+            if (shutDown || (idle && !workers.getQueue().isEmpty())
+                || System.currentTimeMillis() >= deadline) {
+              return false;
             }
           }
-          scheduleConnectivityTimerTask();
+        }
+      } finally {
+        if (!socket.isClosed()) {
+          socket.setSoTimeout(REQUEST_TIMEOUT_MILLIS);
         }
       }
     }
@@ -126,16 +196,16 @@ public final class HttpServer {
     /**
      * Process a request.
      */
-    private void processRequest(Socket socket) throws IOException {
-      Pair<String, String> protocolAndUri = readHttpRequest(socket);
-      String protocol = protocolAndUri.getFirst();
-      String uri = protocolAndUri.getSecond();
+    private void processRequest(Request request, OutputStream outputStream, boolean keepAlive)
+        throws IOException {
+      String protocol = request.protocol;
+      String uri = request.uri;
       log("processRequest: " + protocol + " " + uri + "\n");
 
       // Fail if the server's secret number has not be set yet.
       if (secret == 0) {
-        reply(socket, "ERROR: service is unavailable at this time.<p>\n",
-            ResponseCode.SERVICE_UNAV);
+        reply(outputStream, "ERROR: service is unavailable at this time.<p>\n",
+            ResponseCode.SERVICE_UNAV, keepAlive);
         return;
       }
 
@@ -143,16 +213,16 @@ public final class HttpServer {
       String addr = socket.getInetAddress().getHostAddress();
       if (!addr.equals("127.0.0.1")) {
         log("    rejecting request from unauthorized client\n");
-        reply(socket, "ERROR: " + addr + " unauthorized to send request.<p>\n",
-            ResponseCode.UNAUTHORIZED);
+        reply(outputStream, "ERROR: " + addr + " unauthorized to send request.<p>\n",
+            ResponseCode.UNAUTHORIZED, keepAlive);
         return;
       }
 
       // Only allow GET requests.
       if (!protocol.equals("GET")) {
         log("    rejecting request of unsupported protocol " + protocol + "\n");
-        reply(socket, "ERROR: " + protocol + " not implemented.<p>\n",
-            ResponseCode.NOT_IMPL);
+        reply(outputStream, "ERROR: " + protocol + " not implemented.<p>\n",
+            ResponseCode.NOT_IMPL, keepAlive);
         return;
       }
 
@@ -163,19 +233,25 @@ public final class HttpServer {
 
       // Validate the request parameters
       if (!validateRequestParameters(parameters, secret)) {
-        reply(socket, "ERROR: request is bad.<p>\n", ResponseCode.BAD_REQUEST);
+        reply(outputStream, "ERROR: request is bad.<p>\n", ResponseCode.BAD_REQUEST, keepAlive);
         return;
       }
 
       HttpRequestHandler handler = getHandlerForKey(handlerKey);
       if (handler != null) {
-        reply(socket, handler.handleRequest(parameters), ResponseCode.REQUEST_OK);
+        long start = System.nanoTime();
+        String body = handler.handleRequest(parameters);
+        HandlerStatistics statistics = getHandlerStatisticsForKey(handlerKey);
+        statistics.record(System.nanoTime() - start);
+        log("    " + handlerKey + ": " + statistics + "\n");
+        reply(outputStream, body, ResponseCode.REQUEST_OK, keepAlive);
       } else {
-        reply(socket, "Page not found: " + uri + "\n", ResponseCode.NOT_FOUND);
+        reply(outputStream, "Page not found: " + uri + "\n", ResponseCode.NOT_FOUND, keepAlive);
       }
     }
 
-    private void reply(Socket socket, String body, ResponseCode responseCode) throws IOException {
+    private void reply(OutputStream outputStream, String body, ResponseCode responseCode,
+        boolean keepAlive) throws IOException {
       byte[] utf8Bytes = body.getBytes("UTF-8");
 
       // Set headers.
@@ -183,16 +259,75 @@ public final class HttpServer {
           + responseCode.getDescription() + "\r\n"
           + "Content-Type: text/plain\r\n"
           + "Content-Length: " + utf8Bytes.length + "\r\n"
+          + "Connection: " + (keepAlive ? "keep-alive" : "close") + "\r\n"
           + "Cache-Control: no-cache\r\n\r\n";
 
-      // Write the headers.
-      OutputStream outputStream = socket.getOutputStream();
-      PrintWriter writer = new PrintWriter(new OutputStreamWriter(outputStream, "UTF-8"));
-      writer.write(outputHeaders);
-      writer.flush();
-
-      // Write the body.
+      // Write the headers and the body, and send them together.
+      outputStream.write(outputHeaders.getBytes("UTF-8"));
       outputStream.write(utf8Bytes);
+      outputStream.flush();
+    }
+  }
+
+  /**
+   * The parts of an HTTP request that the server looks at.
+   */
+  // VisibleForTesting
+  static class Request {
+    final String protocol;
+    final String uri;
+    final boolean keepAlive;
+
+    Request(String protocol, String uri, boolean keepAlive) {
+      this.protocol = protocol;
+      this.uri = uri;
+      this.keepAlive = keepAlive;
+    }
+  }
+
+  /**
+   * Latency counters for the requests served by one handler.
+   */
+  public static final class HandlerStatistics {
+    private long requestCount;
+    private long totalNanos;
+    private long maxNanos;
+
+    HandlerStatistics() {
+    }
+
+    synchronized void record(long nanos) {
+      requestCount++;
+      totalNanos += nanos;
+      maxNanos = Math.max(maxNanos, nanos);
+    }
+
+    /**
+     * Returns the number of requests handled.
+     */
+    public synchronized long getRequestCount() {
+      return requestCount;
+    }
+
+    /**
+     * Returns the total time spent handling requests, in nano seconds.
+     */
+    public synchronized long getTotalLatencyNanos() {
+      return totalNanos;
+    }
+
+    /**
+     * Returns the longest time spent handling one request, in nano seconds.
+     */
+    public synchronized long getMaxLatencyNanos() {
+      return maxNanos;
+    }
+
+    @Override
+    public synchronized String toString() {
+      long averageMillis = (requestCount == 0) ? 0 : totalNanos / requestCount / 1000000;
+      return requestCount + " requests, average " + averageMillis + " ms, max "
+          + (maxNanos / 1000000) + " ms";
     }
   }
 
@@ -224,6 +359,16 @@ public final class HttpServer {
   private static final long NO_CONNECTIVITY_TIME_MILLIS = 5000;
   private static final long NO_CONNECTIVITY_TIME_NANO = NO_CONNECTIVITY_TIME_MILLIS * 1000000;
 
+  // The number of connections that are handled at the same time. Requests from
+  // the browser that arrive while all the workers are busy wait their turn.
+  private static final int WORKER_THREAD_COUNT = 4;
+  private static final int KEEP_ALIVE_TIMEOUT_MILLIS = 5000;
+  // How often an idle connection checks whether another connection is waiting
+  // for a worker.
+  private static final int IDLE_POLL_INTERVAL_MILLIS = 50;
+  private static final int REQUEST_TIMEOUT_MILLIS = 30 * 1000;
+  private static final int MAX_REQUESTS_PER_CONNECTION = 100;
+
   public static final boolean LOG_TO_SYSTEM_OUT = false;
 
   /**
@@ -236,6 +381,19 @@ public final class HttpServer {
    */
   private final Map<String, HttpRequestHandler> handlers;
 
+  /**
+   * Map URI strings to latency counters. Guarded by handlers.
+   */
+  private final Map<String, HandlerStatistics> handlerStatistics;
+
+  private final ThreadPoolExecutor workers;
+
+  // Sockets of the connections being handled, so that they can be closed when
+  // the server shuts down.
+  private final Set<Socket> openConnections;
+
+  private final CountDownLatch shutDownLatch;
+
   private volatile boolean shutDown;
 
   // List of listeners for events.
@@ -245,12 +403,24 @@ public final class HttpServer {
   private final Timer connectivityTimer;
   private volatile long lastRequestTime;  // in nano seconds
   private volatile TimerTask connectivityTimerTask;
+  private int activeRequestCount; // Guarded by connectivityTimer.
 
   /**
    * Initialize the server, but don't start it up yet.
    */
   public HttpServer() {
     handlers = new HashMap<String, HttpRequestHandler>();
+    handlerStatistics = new HashMap<String, HandlerStatistics>();
+    workers = new ThreadPoolExecutor(WORKER_THREAD_COUNT, WORKER_THREAD_COUNT,
+        0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+          private final AtomicInteger threadNumber = new AtomicInteger();
+          @Override
+          public Thread newThread(Runnable runnable) {
+            return new Thread(runnable, "HttpServer-Worker-" + threadNumber.incrementAndGet());
+          }
+        });
+    openConnections = new HashSet<Socket>();
+    shutDownLatch = new CountDownLatch(1);
     eventListeners = new ArrayList<HttpServerEventListener>();
     connectivityStatus = true;
     connectivityTimer = new Timer("HttpServer-ConnectivityTimer");
@@ -268,6 +438,7 @@ public final class HttpServer {
       @Override
       public String getResponseValue(Map<String, String> parameters) {
         shutDown = true;
+        shutDownLatch.countDown();
         return null;
       }
     });
@@ -310,6 +481,24 @@ public final class HttpServer {
     }
   }
 
+  /**
+   * Returns the latency counters for the specified request.
+   */
+  public HandlerStatistics getHandlerStatistics(String request) {
+    return getHandlerStatisticsForKey(getHandlerKey(request));
+  }
+
+  private HandlerStatistics getHandlerStatisticsForKey(String key) {
+    synchronized (handlers) {
+      HandlerStatistics statistics = handlerStatistics.get(key);
+      if (statistics == null) {
+        statistics = new HandlerStatistics();
+        handlerStatistics.put(key, statistics);
+      }
+      return statistics;
+    }
+  }
+
   /**
    * Returns the handler key for the given request.
    */
@@ -355,28 +544,25 @@ public final class HttpServer {
     int port = serverSocket.getLocalPort();
     firePortSelected(port);
 
-    BlockingQueue<Socket> connectionQueue = new LinkedBlockingQueue<Socket>();
-    Thread producerThread = new Thread(new Producer(serverSocket, connectionQueue),
-        "HttpServer-Producer");
-    Thread consumerThread = new Thread(new Consumer(connectionQueue), "HttpServer-Consumer");
-
+    Thread producerThread = new Thread(new Producer(serverSocket), "HttpServer-Producer");
     producerThread.start();
-    consumerThread.start();
 
-    // Because the consumerThread will be the one to set the shutDown field, it will be the first
-    // to finish.
-    try {
-      consumerThread.join();
-    } catch (InterruptedException e) {
-      if (LOG_TO_SYSTEM_OUT) {
-        e.printStackTrace(System.out);
+    // The QUIT handler sets the shutDown field and releases the latch.
+    boolean interrupted = false;
+    while (!shutDown) {
+      try {
+        shutDownLatch.await();
+      } catch (InterruptedException e) {
+        interrupted = true;
+        if (LOG_TO_SYSTEM_OUT) {
+          e.printStackTrace(System.out);
+        }
       }
     }
 
-    // After the consumerThread finishes, the producerThread will either finish
-    // on its own after checking the shutDown field or it will be blocked inside the
-    // ServerSocket.accept() method. By closing the server socket here, it will cause the
-    // ServerSocket.accept() method to throw a SocketException.
+    // The producerThread will either finish on its own after checking the shutDown field or it
+    // will be blocked inside the ServerSocket.accept() method. By closing the server socket here,
+    // it will cause the ServerSocket.accept() method to throw a SocketException.
     try {
       serverSocket.close();
     } catch (IOException e) {
@@ -389,6 +575,64 @@ public final class HttpServer {
     try {
       producerThread.join();
     } catch (InterruptedException e) {
+      interrupted = true;
+      if (LOG_TO_SYSTEM_OUT) {
+        e.printStackTrace(System.out);
+      }
+    }
+
+    // Let the workers finish the requests they are handling (including the reply to the QUIT
+    // request). Workers waiting for the next request on a kept-alive connection are woken up by
+    // closing their sockets.
+    workers.shutdown();
+    try {
+      if (!workers.awaitTermination(1, TimeUnit.SECONDS)) {
+        synchronized (openConnections) {
+          for (Socket socket : openConnections) {
+            closeQuietly(socket);
+          }
+        }
+        workers.awaitTermination(30, TimeUnit.SECONDS);
+      }
+    } catch (InterruptedException e) {
+      interrupted = true;
+      if (LOG_TO_SYSTEM_OUT) {
+        e.printStackTrace(System.out);
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Called on a worker thread before a request is handled.
+   */
+  private void requestStarted() {
+    synchronized (connectivityTimer) {
+      activeRequestCount++;
+      cancelConnectivityTimerTask();
+    }
+    setConnectivityStatus(true);
+  }
+
+  /**
+   * Called on a worker thread after a request has been handled. The
+   * connectivity timer only runs while no requests are being handled.
+   */
+  private void requestFinished() {
+    synchronized (connectivityTimer) {
+      activeRequestCount--;
+      if (activeRequestCount == 0) {
+        scheduleConnectivityTimerTask();
+      }
+    }
+  }
+
+  private static void closeQuietly(Socket socket) {
+    try {
+      socket.close();
+    } catch (IOException e) {
       if (LOG_TO_SYSTEM_OUT) {
         e.printStackTrace(System.out);
       }
@@ -415,7 +659,12 @@ public final class HttpServer {
         @Override
         public void run() {
           // Make sure that we really have had no requests for a while.
-          if (System.nanoTime() - lastRequestTime >= NO_CONNECTIVITY_TIME_NANO) {
+          boolean idle;
+          synchronized (connectivityTimer) {
+            idle = activeRequestCount == 0
+                && System.nanoTime() - lastRequestTime >= NO_CONNECTIVITY_TIME_NANO;
+          }
+          if (idle) {
             setConnectivityStatus(false);
           }
         }
@@ -424,7 +673,7 @@ public final class HttpServer {
     }
   }
 
-  private void setConnectivityStatus(boolean newConnectivityStatus) {
+  private synchronized void setConnectivityStatus(boolean newConnectivityStatus) {
     // This method may be called repeatedly with true (or false). We only need to do something when
     // the connectivity status changes.
     if (connectivityStatus != newConnectivityStatus) {
@@ -454,18 +703,18 @@ public final class HttpServer {
   }
 
   /**
-   * Reads the HTTP request from the given socket and returns the protocol and
-   * URI as a Pair.
+   * Reads the request line and headers of the next HTTP request from the
+   * given reader. Returns null if the connection was closed before another
+   * request arrived.
    */
-  private static Pair<String, String> readHttpRequest(Socket socket) throws IOException {
-    BufferedReader reader = new BufferedReader(
-        new InputStreamReader(socket.getInputStream(), "UTF-8"));
+  // VisibleForTesting
+  static Request readHttpRequest(BufferedReader reader) throws IOException {
     // Find the first non-blank line.
     String line;
     do {
       line = reader.readLine();
       if (line == null) {
-        throw new IllegalStateException("readLine returned null");
+        return null;
       }
     } while (line.length() == 0);
 
@@ -476,8 +725,27 @@ public final class HttpServer {
     }
     String protocol = parts[0];
     String uri = parts[1];
+    String version = (parts.length > 2) ? parts[2].trim() : "HTTP/1.0";
+
+    // HTTP/1.1 connections are persistent unless the client says otherwise; HTTP/1.0 connections
+    // are persistent only if the client asks for it.
+    boolean keepAlive = version.equals("HTTP/1.1");
+    while ((line = reader.readLine()) != null && line.length() != 0) {
+      int colon = line.indexOf(':');
+      if (colon != -1 && line.substring(0, colon).trim().equalsIgnoreCase("Connection")) {
+        String value = line.substring(colon + 1).trim();
+        if (value.equalsIgnoreCase("close")) {
+          keepAlive = false;
+        } else if (value.equalsIgnoreCase("keep-alive")) {
+          keepAlive = true;
+        }
+      }
+    }
+    if (line == null) {
+      keepAlive = false;
+    }
 
-    return new Pair<String, String>(protocol, uri);
+    return new Request(protocol, uri, keepAlive);
   }
 
   /**
@@ -32,6 +32,8 @@ import java.net.URL;
 import java.net.URLConnection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Class to handle callbacks from codeblocks for Android-specific communication
@@ -613,6 +615,51 @@ public final class YaCodeblocksAndroidController implements AndroidController,
     }
   }
 
+  public Map<String, Long> listDeviceFiles(String remoteDirectory) {
+    if (usingwifi) return null;
+    IDevice device = starterAppManager.getSelectedDevice();
+    if (device == null) return null;
+    final Map<String, Long> sizes = new HashMap<String, Long>();
+    try {
+      device.executeShellCommand("ls -l " + remoteDirectory, new MultiLineReceiver() {
+        @Override
+        public void processNewLines(String[] lines) {
+          for (String line : lines) {
+            parseListedFile(line, sizes);
+          }
+        }
+        @Override
+        public boolean isCancelled() {
+          return false;
+        }
+      });
+    } catch (Exception e) {
+      System.out.println("Attempt to list " + remoteDirectory + " on device gave Exception "
+          + e.getMessage());
+      return null;
+    }
+    return sizes;
+  }
+
+  // Matches a regular file in the output of ls -l, whose size comes just
+  // before the modification date and whose name comes after the time.
+  private static final Pattern LISTED_FILE =
+      Pattern.compile("^-.*\\s(\\d+)\\s+\\d{4}-\\d{2}-\\d{2}\\s+"
+          + "\\d{2}:\\d{2}(?::\\d{2}\\S*)?\\s(.+)$");
+
+  /**
+   * Adds the size of the file listed on the given line of ls -l output to
+   * sizes, keyed by the file name. Lines that don't list a regular file are
+   * ignored.
+   */
+  // VisibleForTesting
+  static void parseListedFile(String line, Map<String, Long> sizes) {
+    Matcher matcher = LISTED_FILE.matcher(line.trim());
+    if (matcher.matches()) {
+      sizes.put(matcher.group(2), Long.valueOf(matcher.group(1)));
+    }
+  }
+
   // Returns true iff we can detect that the external storage is *not* mounted
   // on the phone.
   private boolean externalStorageNotMounted() {
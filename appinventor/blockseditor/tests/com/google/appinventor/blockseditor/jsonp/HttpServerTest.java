@@ -12,7 +12,17 @@ import com.google.common.collect.Maps;
 
 import junit.framework.TestCase;
 
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 
 /**
@@ -107,4 +117,214 @@ public class HttpServerTest extends TestCase {
     parameters.put(JsonpConstants.SECRET, "712");
     assertFalse(HttpServer.validateRequestParameters(parameters, REQUIRED_SECRET));
   }
+
+  private static HttpServer.Request readRequest(String text) throws Exception {
+    return HttpServer.readHttpRequest(new BufferedReader(new StringReader(text)));
+  }
+
+  public void testReadHttpRequestKeepAlive() throws Exception {
+    HttpServer.Request request = readRequest("\r\nGET /contact?id=1 HTTP/1.1\r\n"
+        + "Host: localhost\r\n\r\n");
+    assertEquals("GET", request.protocol);
+    assertEquals("/contact?id=1", request.uri);
+    assertTrue(request.keepAlive);
+
+    assertFalse(readRequest("GET / HTTP/1.1\r\nConnection: close\r\n\r\n").keepAlive);
+    assertFalse(readRequest("GET / HTTP/1.0\r\n\r\n").keepAlive);
+    assertTrue(readRequest("GET / HTTP/1.0\r\nconnection: Keep-Alive\r\n\r\n").keepAlive);
+    // The headers were cut off, so there can't be another request on this connection.
+    assertFalse(readRequest("GET / HTTP/1.1\r\nHost: localhost\r\n").keepAlive);
+  }
+
+  public void testReadHttpRequestSeveralRequests() throws Exception {
+    BufferedReader reader = new BufferedReader(new StringReader(
+        "GET /a HTTP/1.1\r\nHost: localhost\r\n\r\nGET /b HTTP/1.1\r\n\r\n"));
+    assertEquals("/a", HttpServer.readHttpRequest(reader).uri);
+    assertEquals("/b", HttpServer.readHttpRequest(reader).uri);
+    assertNull(HttpServer.readHttpRequest(reader));
+  }
+
+  public void testHandlerStatistics() throws Exception {
+    HttpServer server = new HttpServer();
+    HttpServer.HandlerStatistics statistics = server.getHandlerStatistics(JsonpConstants.CONTACT);
+    assertEquals(0, statistics.getRequestCount());
+    statistics.record(3000000);
+    statistics.record(1000000);
+    assertSame(statistics, server.getHandlerStatistics(JsonpConstants.CONTACT));
+    assertEquals(2, statistics.getRequestCount());
+    assertEquals(4000000, statistics.getTotalLatencyNanos());
+    assertEquals(3000000, statistics.getMaxLatencyNanos());
+  }
+
+  private static String requestUri(String request) {
+    return "/" + request + "?" + JsonpConstants.OUTPUT + "=" + JsonpConstants.REQUIRED_OUTPUT_VALUE
+        + "&" + JsonpConstants.CALLBACK + "=" + JsonpConstants.REQUIRED_CALLBACK_VALUE
+        + "&" + JsonpConstants.ID + "=jr_" + request
+        + "&" + JsonpConstants.SECRET + "=" + REQUIRED_SECRET;
+  }
+
+  private static void sendRequest(Socket socket, String request) throws IOException {
+    OutputStream out = socket.getOutputStream();
+    out.write(("GET " + requestUri(request) + " HTTP/1.1\r\nHost: localhost\r\n\r\n")
+        .getBytes("UTF-8"));
+    out.flush();
+  }
+
+  /**
+   * Reads one response and returns its body.
+   */
+  private static String readResponse(DataInputStream in) throws IOException {
+    int contentLength = -1;
+    String line;
+    while ((line = readLine(in)).length() != 0) {
+      if (line.startsWith("Content-Length: ")) {
+        contentLength = Integer.parseInt(line.substring("Content-Length: ".length()));
+      }
+    }
+    byte[] body = new byte[contentLength];
+    in.readFully(body);
+    return new String(body, "UTF-8");
+  }
+
+  private static String readLine(DataInputStream in) throws IOException {
+    StringBuilder sb = new StringBuilder();
+    int c;
+    while ((c = in.read()) != '\n') {
+      if (c == -1) {
+        throw new IOException("connection closed");
+      }
+      if (c != '\r') {
+        sb.append((char) c);
+      }
+    }
+    return sb.toString();
+  }
+
+  public void testSlowHandlerDoesNotBlockOtherRequests() throws Exception {
+    final HttpServer server = new HttpServer();
+    server.setSecret(REQUIRED_SECRET);
+    final CountDownLatch slowRequestStarted = new CountDownLatch(1);
+    final CountDownLatch finishSlowRequest = new CountDownLatch(1);
+    server.setHandler("slow", new JsonpRequestHandler(server) {
+      @Override
+      public String getResponseValue(Map<String, String> parameters) throws Throwable {
+        slowRequestStarted.countDown();
+        finishSlowRequest.await();
+        return "done";
+      }
+    });
+    final int[] port = new int[1];
+    final CountDownLatch portSelected = new CountDownLatch(1);
+    server.addHttpServerEventListener(new HttpServerEventListener() {
+      @Override
+      public void onPortSelected(HttpServer subject, int selectedPort) {
+        port[0] = selectedPort;
+        portSelected.countDown();
+      }
+      @Override
+      public void onConnectivityStatusChange(HttpServer subject, boolean status) {
+      }
+    });
+    Thread serverThread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          server.runHttpServer();
+        } catch (IOException e) {
+          throw new RuntimeException(e);
+        }
+      }
+    });
+    serverThread.start();
+    assertTrue(portSelected.await(10, TimeUnit.SECONDS));
+
+    Socket slowSocket = new Socket("127.0.0.1", port[0]);
+    Socket socket = new Socket("127.0.0.1", port[0]);
+    try {
+      sendRequest(slowSocket, "slow");
+      assertTrue(slowRequestStarted.await(10, TimeUnit.SECONDS));
+
+      // Two requests on one kept-alive connection, while the slow request is still running.
+      DataInputStream in = new DataInputStream(socket.getInputStream());
+      sendRequest(socket, JsonpConstants.CONTACT);
+      assertTrue(readResponse(in).contains("jr_" + JsonpConstants.CONTACT));
+      sendRequest(socket, JsonpConstants.CONTACT);
+      assertTrue(readResponse(in).contains("jr_" + JsonpConstants.CONTACT));
+      assertEquals(2, server.getHandlerStatistics(JsonpConstants.CONTACT).getRequestCount());
+
+      finishSlowRequest.countDown();
+      assertTrue(readResponse(new DataInputStream(slowSocket.getInputStream())).contains("done"));
+      assertEquals(1, server.getHandlerStatistics("slow").getRequestCount());
+
+      sendRequest(socket, JsonpConstants.QUIT);
+      readResponse(in);
+    } finally {
+      finishSlowRequest.countDown();
+      slowSocket.close();
+      socket.close();
+    }
+    serverThread.join(10000);
+    assertFalse(serverThread.isAlive());
+  }
+
+  public void testIdleKeptAliveConnectionsDoNotBlockOtherRequests() throws Exception {
+    final HttpServer server = new HttpServer();
+    server.setSecret(REQUIRED_SECRET);
+    final int[] port = new int[1];
+    final CountDownLatch portSelected = new CountDownLatch(1);
+    server.addHttpServerEventListener(new HttpServerEventListener() {
+      @Override
+      public void onPortSelected(HttpServer subject, int selectedPort) {
+        port[0] = selectedPort;
+        portSelected.countDown();
+      }
+      @Override
+      public void onConnectivityStatusChange(HttpServer subject, boolean status) {
+      }
+    });
+    Thread serverThread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          server.runHttpServer();
+        } catch (IOException e) {
+          throw new RuntimeException(e);
+        }
+      }
+    });
+    serverThread.start();
+    assertTrue(portSelected.await(10, TimeUnit.SECONDS));
+
+    // Leave one kept-alive connection idle for each worker.
+    List<Socket> idleSockets = new ArrayList<Socket>();
+    Socket socket = null;
+    try {
+      for (int i = 0; i < 4; i++) {
+        Socket idleSocket = new Socket("127.0.0.1", port[0]);
+        idleSockets.add(idleSocket);
+        sendRequest(idleSocket, JsonpConstants.CONTACT);
+        assertTrue(readResponse(new DataInputStream(idleSocket.getInputStream()))
+            .contains("jr_" + JsonpConstants.CONTACT));
+      }
+
+      long start = System.currentTimeMillis();
+      socket = new Socket("127.0.0.1", port[0]);
+      DataInputStream in = new DataInputStream(socket.getInputStream());
+      sendRequest(socket, JsonpConstants.CONTACT);
+      assertTrue(readResponse(in).contains("jr_" + JsonpConstants.CONTACT));
+      assertTrue(System.currentTimeMillis() - start < 2000);
+
+      sendRequest(socket, JsonpConstants.QUIT);
+      readResponse(in);
+    } finally {
+      for (Socket idleSocket : idleSockets) {
+        idleSocket.close();
+      }
+      if (socket != null) {
+        socket.close();
+      }
+    }
+    serverThread.join(10000);
+    assertFalse(serverThread.isAlive());
+  }
 }
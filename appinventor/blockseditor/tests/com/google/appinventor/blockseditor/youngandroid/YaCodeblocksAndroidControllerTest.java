@@ -0,0 +1,41 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2009-2011 Google, All Rights reserved
+// Copyright 2011-2012 MIT, All rights reserved
+// Released under the MIT License https://raw.github.com/mit-cml/app-inventor/master/mitlicense.txt
+
+package com.google.appinventor.blockseditor.youngandroid;
+
+import junit.framework.TestCase;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Tests how {@link YaCodeblocksAndroidController} reads the files listed on a device.
+ *
+ */
+public class YaCodeblocksAndroidControllerTest extends TestCase {
+
+  public void testParseListedFile() {
+    Map<String, Long> sizes = new HashMap<String, Long>();
+    // Older devices list the owner and group only.
+    YaCodeblocksAndroidController.parseListedFile(
+        "-rwxrwxr-x system   sdcard_rw    48211 2012-03-05 14:02 kitty.png", sizes);
+    // Newer ones add a link count and may show seconds.
+    YaCodeblocksAndroidController.parseListedFile(
+        "-rw-rw---- 1 root sdcard_rw 1024 2020-11-30 09:15:42.000000000 meow sound.mp3\r", sizes);
+    assertEquals(2, sizes.size());
+    assertEquals(Long.valueOf(48211), sizes.get("kitty.png"));
+    assertEquals(Long.valueOf(1024), sizes.get("meow sound.mp3"));
+  }
+
+  public void testParseListedFileIgnoresOtherLines() {
+    Map<String, Long> sizes = new HashMap<String, Long>();
+    YaCodeblocksAndroidController.parseListedFile("total 52", sizes);
+    YaCodeblocksAndroidController.parseListedFile(
+        "drwxrwxr-x system   sdcard_rw          2012-03-05 14:02 sounds", sizes);
+    YaCodeblocksAndroidController.parseListedFile(
+        "/sdcard/AppInventor/assets/: No such file or directory", sizes);
+    assertTrue(sizes.isEmpty());
+  }
+}
@@ -12,8 +12,6 @@ import java.util.List;
 import java.util.HashMap;
 import java.util.Collections;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
@@ -44,7 +42,7 @@ public class Block implements ISupportMemento {
   public static final Long NULL = Long.valueOf(-1);
 
   /** A universal hashmap of all the Block instances*/
-  private final static HashMap<Long, Block> ALL_BLOCKS= new HashMap<Long,Block>();
+  private static HashMap<Long, Block> ALL_BLOCKS= new HashMap<Long,Block>();
 
   public static final String BAD_BLOCK_FORMAT_MESSAGE =
       "Block may have an old version. Please replace it";
@@ -278,6 +276,35 @@ public class Block implements ISupportMemento {
     NEXT_ID = 1;
   }
 
+  /** The Block instances and id assignment of a detached workspace */
+  private static class Registry {
+    HashMap<Long, Block> blocks;
+    long nextID;
+  }
+
+  /**
+   * Takes away all block instances and id assignment, leaving them as reset()
+   * would, and returns them for attachRegistry().
+   */
+  public static Object detachRegistry(){
+    Registry registry = new Registry();
+    registry.blocks = ALL_BLOCKS;
+    registry.nextID = NEXT_ID;
+    ALL_BLOCKS = new HashMap<Long, Block>();
+    NEXT_ID = 1;
+    return registry;
+  }
+
+  /**
+   * Replaces all block instances and id assignment with ones returned by
+   * detachRegistry().
+   */
+  public static void attachRegistry(Object detached){
+    Registry registry = (Registry) detached;
+    ALL_BLOCKS = registry.blocks;
+    NEXT_ID = registry.nextID;
+  }
+
   /**
    * Remove block from ALL_BLOCKS for benefit of RenderableBlock who created
    * it just to get a collapsed shape.
@@ -1479,8 +1506,18 @@ public class Block implements ISupportMemento {
    * @return the save string of this Block and the RenderableBlock's stuff
    */
   public String getSaveString(String renderablesStuff){
-    StringBuffer saveString = new StringBuffer();
+    StringBuilder saveString = new StringBuilder();
+    appendSaveString(renderablesStuff, saveString);
+    return saveString.toString();
+  }
 
+  /**
+   * Appends the save string of this Block and the RenderableBlock's stuff to
+   * saveString, so that a whole page can be written into one buffer.
+   * @param renderablesStuff - thing like location, visibility, etc.
+   * @param saveString the buffer to write to
+   */
+  public void appendSaveString(String renderablesStuff, StringBuilder saveString){
     saveString.append("<Block ");
     appendAttribute("id", this.blockID.toString(), saveString);
     appendAttribute("genus-name", this.getGenusName(), saveString);
@@ -1528,7 +1565,7 @@ public class Block implements ISupportMemento {
 
     if (plug != null){
       saveString.append("<Plug>");
-      saveString.append(plug.getSaveString("plug"));
+      plug.appendSaveString("plug", saveString);
       saveString.append("</Plug>\n");
     }
 
@@ -1537,7 +1574,7 @@ public class Block implements ISupportMemento {
       appendAttribute("num-sockets", "" + this.getNumSockets(), saveString);
       saveString.append(">\n");
       for (BlockConnector con : getSockets()){
-        saveString.append(con.getSaveString("socket"));
+        con.appendSaveString("socket", saveString);
         saveString.append("\n");
       }
       saveString.append("</Sockets>\n");  //sockets tricky... because what if
@@ -1561,11 +1598,10 @@ public class Block implements ISupportMemento {
 
 
     saveString.append("</Block>\n");
-    return saveString.toString();
   }
 
   //TODO may put this in a separate XML writing utility class
-  private void appendAttribute(String att, String value, StringBuffer buf){
+  private void appendAttribute(String att, String value, StringBuilder buf){
     buf.append(att);
     buf.append(EQ_OPEN_QUOTE);
     buf.append(Escapers.escapeForXml(value));
@@ -1599,9 +1635,6 @@ public class Block implements ISupportMemento {
     boolean isStubBlock =  false;
     String stubParentName = null;
     String stubParentGenus = null;
-    Pattern attrExtractor=Pattern.compile("\"(.*)\"");
-    Matcher nameMatcher;
-
     if (node.getNodeName().equals("BlockStub")){
       isStubBlock = true;
       Node blockNode = null;
@@ -1620,18 +1653,12 @@ public class Block implements ISupportMemento {
 
     if (node.getNodeName().equals("Block")){
       //load attributes
-      nameMatcher=attrExtractor.matcher(node.getAttributes().getNamedItem("id").toString());
-      if (nameMatcher.find()) //will be true
-        id = translateLong(Long.parseLong(nameMatcher.group(1)), idMapping);
-      nameMatcher=attrExtractor.matcher(node.getAttributes().getNamedItem("genus-name").toString());
-      if (nameMatcher.find()) //will be true
-        genusName = nameMatcher.group(1);
+      id = translateLong(Long.parseLong(node.getAttributes().getNamedItem("id").getNodeValue()), idMapping);
+      genusName = node.getAttributes().getNamedItem("genus-name").getNodeValue();
       //load optional items
       Node opt_item = node.getAttributes().getNamedItem("has-focus");
       if (opt_item != null){
-        nameMatcher=attrExtractor.matcher(opt_item.toString());
-        if (nameMatcher.find()) //will be true
-          hasFocus= nameMatcher.group(1).equals("yes") ? true : false;
+        hasFocus= opt_item.getNodeValue().equals("yes") ? true : false;
       }
 
       //load elements
@@ -1680,14 +1707,10 @@ public class Block implements ISupportMemento {
           for (int m=0; m<propertyNodes.getLength(); m++){
             propertyNode = propertyNodes.item(m);
             if (propertyNode.getNodeName().equals("LangSpecProperty")){
-              nameMatcher=attrExtractor.matcher(propertyNode.getAttributes().getNamedItem("key").toString());
-              if (nameMatcher.find()) //will be true
-                key = nameMatcher.group(1);
+              key = propertyNode.getAttributes().getNamedItem("key").getNodeValue();
               opt_item = propertyNode.getAttributes().getNamedItem("value");
               if (opt_item != null){
-                nameMatcher=attrExtractor.matcher(opt_item.toString());
-                if (nameMatcher.find()) //will be true
-                  value = nameMatcher.group(1);
+                value = opt_item.getNodeValue();
               }else{
                 value = propertyNode.getTextContent();
               }
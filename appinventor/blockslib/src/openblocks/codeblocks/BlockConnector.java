@@ -5,8 +5,6 @@
 package openblocks.codeblocks;
 
 import java.util.HashMap;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import org.w3c.dom.Node;
 
 import openblocks.renderable.BlockUtilities;
@@ -319,9 +317,6 @@ public class BlockConnector implements ISupportMemento {
      * @return BlockConnector instance with the loaded information
      */
     public static BlockConnector loadBlockConnector(Node node, HashMap<Long, Long> idMapping){
-        Pattern attrExtractor=Pattern.compile("\"(.*)\"");
-        Matcher nameMatcher;
-
         BlockConnector con = null;
 
         String initKind = null;
@@ -336,51 +331,33 @@ public class BlockConnector implements ISupportMemento {
 
         if(node.getNodeName().equals("BlockConnector")){
             //load attributes
-            nameMatcher=attrExtractor.matcher(node.getAttributes().getNamedItem("init-type").toString());
-            if (nameMatcher.find()) //will be true
-                initKind = nameMatcher.group(1);
-            nameMatcher=attrExtractor.matcher(node.getAttributes().getNamedItem("connector-type").toString());
-            if (nameMatcher.find()) //will be true
-                kind = nameMatcher.group(1);
-            nameMatcher=attrExtractor.matcher(node.getAttributes().getNamedItem("label").toString());
-            if (nameMatcher.find()) //will be true
-                label = nameMatcher.group(1);
+            initKind = node.getAttributes().getNamedItem("init-type").getNodeValue();
+            kind = node.getAttributes().getNamedItem("connector-type").getNodeValue();
+            label = node.getAttributes().getNamedItem("label").getNodeValue();
             //load optional items
             Node opt_item = node.getAttributes().getNamedItem("con-block-id");
             if(opt_item != null){
-                nameMatcher=attrExtractor.matcher(opt_item.toString());
-                if (nameMatcher.find()) //will be true
-                    idConnected= Block.translateLong(Long.parseLong(nameMatcher.group(1)), idMapping);
+                idConnected= Block.translateLong(Long.parseLong(opt_item.getNodeValue()), idMapping);
             }
             opt_item = node.getAttributes().getNamedItem("label-editable");
             if (opt_item != null) {
-            	nameMatcher=attrExtractor.matcher(opt_item.toString());
-            	if (nameMatcher.find()) //will be true
-            		isLabelEditable = nameMatcher.group(1).equals("true");
+            	isLabelEditable = opt_item.getNodeValue().equals("true");
             }
             opt_item = node.getAttributes().getNamedItem("is-expandable");
             if(opt_item != null){
-                nameMatcher=attrExtractor.matcher(opt_item.toString());
-                if (nameMatcher.find()) //will be true
-                    isExpandable = nameMatcher.group(1).equals("yes") ? true : false;
+                isExpandable = opt_item.getNodeValue().equals("yes") ? true : false;
             }
             opt_item = node.getAttributes().getNamedItem("is-indented");
             if(opt_item != null){
-                nameMatcher=attrExtractor.matcher(opt_item.toString());
-                if (nameMatcher.find()) //will be true
-                    isIndented = nameMatcher.group(1).equals("yes") ? true : false;
+                isIndented = opt_item.getNodeValue().equals("yes") ? true : false;
             }
             opt_item = node.getAttributes().getNamedItem("expand-group");
             if(opt_item != null){
-                nameMatcher=attrExtractor.matcher(opt_item.toString());
-                if (nameMatcher.find()) //will be true
-                    expandGroup = nameMatcher.group(1);
+                expandGroup = opt_item.getNodeValue();
             }
             opt_item = node.getAttributes().getNamedItem("position-type");
             if(opt_item != null){
-                nameMatcher=attrExtractor.matcher(opt_item.toString());
-                if (nameMatcher.find()) //will be true
-                    positionType= nameMatcher.group(1);
+                positionType= opt_item.getNodeValue();
             }
 
             assert initKind != null : "BlockConnector was not specified a initial connection kind";
@@ -415,8 +392,17 @@ public class BlockConnector implements ISupportMemento {
      * @return the save string of this
      */
     public String getSaveString(String conKind){
-        StringBuffer saveString = new StringBuffer();
+        StringBuilder saveString = new StringBuilder();
+        appendSaveString(conKind, saveString);
+        return saveString.toString();
+    }
 
+    /**
+     * Appends the save string of this to saveString.
+     * @param conKind String containing if this is a socket or plug
+     * @param saveString the buffer to write to
+     */
+    public void appendSaveString(String conKind, StringBuilder saveString){
         saveString.append("<BlockConnector ");
         appendAttribute("connector-kind", conKind, saveString);
         appendAttribute("connector-type", kind, saveString);
@@ -443,14 +429,12 @@ public class BlockConnector implements ISupportMemento {
             appendAttribute("con-block-id", this.connBlockID.toString(), saveString);
 
         saveString.append("></BlockConnector>");
-
-        return saveString.toString();
     }
 
     private final String EQ_OPEN_QUOTE = "=\"";
     private final String CLOSE_QUOTE ="\" ";
 
-    private void appendAttribute(String att, String value, StringBuffer buf){
+    private void appendAttribute(String att, String value, StringBuilder buf){
         buf.append(att);
         buf.append(EQ_OPEN_QUOTE);
         buf.append(Escapers.escapeForXml(value));
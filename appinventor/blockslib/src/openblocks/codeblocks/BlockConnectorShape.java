@@ -9,8 +9,6 @@ import java.awt.geom.AffineTransform;
 import java.awt.geom.GeneralPath;
 import java.awt.geom.Point2D;
 import java.util.HashMap;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
@@ -625,8 +623,6 @@ public class BlockConnectorShape {
     public static void loadBlockConnectorShapes(Element root){
 
 
-            Pattern attrExtractor=Pattern.compile("\"(.*)\"");
-            Matcher nameMatcher;
                 NodeList drawerNodes=root.getElementsByTagName("BlockConnectorShape");
                 Node drawerNode;
 
@@ -635,12 +631,8 @@ public class BlockConnectorShape {
                     if(drawerNode.getNodeName().equals("BlockConnectorShape")){
                         String shapeType = null;
                         String shapeNumber = null;
-                        nameMatcher=attrExtractor.matcher(drawerNode.getAttributes().getNamedItem("shape-type").toString());
-                        if (nameMatcher.find()) //will be true
-                            shapeType = nameMatcher.group(1);
-                        nameMatcher=attrExtractor.matcher(drawerNode.getAttributes().getNamedItem("shape-number").toString());
-                        if (nameMatcher.find()) //will be true
-                            shapeNumber = nameMatcher.group(1);
+                        shapeType = drawerNode.getAttributes().getNamedItem("shape-type").getNodeValue();
+                        shapeNumber = drawerNode.getAttributes().getNamedItem("shape-number").getNodeValue();
 
                         if(shapeType != null && shapeNumber != null){
 
@@ -17,8 +17,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.StringTokenizer;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import javax.swing.ImageIcon;
 import javax.xml.parsers.DocumentBuilder;
@@ -584,8 +582,6 @@ public class BlockGenus {
      * @param genus BlockGenus to load block connector information onto
      */
     private static void loadBlockConnectorInformation(NodeList connectors, BlockGenus genus){
-        Pattern attrExtractor=Pattern.compile("\"(.*)\"");
-        Matcher nameMatcher;
         Node opt_item;
         Node connector;
         for (int k=0; k<connectors.getLength(); k++){
@@ -603,36 +599,20 @@ public class BlockGenus {
                 String defarglabel = null;
 
                 if (connector.getAttributes().getLength()>0){
-                    nameMatcher=attrExtractor.matcher(connector.getAttributes().getNamedItem("connector-kind").toString());
-                    if (nameMatcher.find()) //will be true
-                        connectorKind = nameMatcher.group(1).equals("socket") ? 0 : 1;
-                    nameMatcher=attrExtractor.matcher(connector.getAttributes().getNamedItem("connector-type").toString());
-                    if (nameMatcher.find()) //will be true
-                        connectorType= nameMatcher.group(1);
-                    nameMatcher=attrExtractor.matcher(connector.getAttributes().getNamedItem("position-type").toString());
-                    if (nameMatcher.find()) //will be true
-                        positionType= nameMatcher.group(1);
-                    nameMatcher=attrExtractor.matcher(connector.getAttributes().getNamedItem("is-expandable").toString());
-                    if (nameMatcher.find()) //will be true
-                        isExpandable = nameMatcher.group(1).equals("yes") ? true : false;
-                    nameMatcher=attrExtractor.matcher(connector.getAttributes().getNamedItem("is-indented").toString());
-                    if (nameMatcher.find()) //will be true
-                        isIndented = nameMatcher.group(1).equals("yes") ? true : false;
-                    nameMatcher=attrExtractor.matcher(connector.getAttributes().getNamedItem("label-editable").toString());
-                    if (nameMatcher.find()) //will be true
-                        isLabelEditable = nameMatcher.group(1).equals("yes") ? true: false;
+                    connectorKind = connector.getAttributes().getNamedItem("connector-kind").getNodeValue().equals("socket") ? 0 : 1;
+                    connectorType= connector.getAttributes().getNamedItem("connector-type").getNodeValue();
+                    positionType= connector.getAttributes().getNamedItem("position-type").getNodeValue();
+                    isExpandable = connector.getAttributes().getNamedItem("is-expandable").getNodeValue().equals("yes") ? true : false;
+                    isIndented = connector.getAttributes().getNamedItem("is-indented").getNodeValue().equals("yes") ? true : false;
+                    isLabelEditable = connector.getAttributes().getNamedItem("label-editable").getNodeValue().equals("yes") ? true: false;
                     //load optional items
                     opt_item = connector.getAttributes().getNamedItem("label");
                     if(opt_item != null){
-                        nameMatcher=attrExtractor.matcher(opt_item.toString());
-                        if (nameMatcher.find()) //will be true
-                            label= nameMatcher.group(1);
+                        label= opt_item.getNodeValue();
                     }
                     opt_item = connector.getAttributes().getNamedItem("expand-group");
                     if(opt_item != null){
-                        nameMatcher=attrExtractor.matcher(opt_item.toString());
-                        if (nameMatcher.find()) //will be true
-                            expandGroup= nameMatcher.group(1);
+                        expandGroup= opt_item.getNodeValue();
                     }
                 }
 
@@ -644,17 +624,13 @@ public class BlockGenus {
                         defarg = defargs.item(l);
                         if(defarg.getNodeName().equals("DefaultArg")){
                             if (defarg.getAttributes().getLength()>0){
-                                nameMatcher=attrExtractor.matcher(defarg.getAttributes().getNamedItem("genus-name").toString());
-                                if (nameMatcher.find()) //will be true
-                                    defargname = nameMatcher.group(1);
+                                defargname = defarg.getAttributes().getNamedItem("genus-name").getNodeValue();
                                 assert BlockGenus.nameToGenus.get(defargname) != null : "Unknown BlockGenus: "+defargname;
                                 //warning: if this block genus does not have an editable label, the label being loaded does not
                                 //have an affect
                                 opt_item = defarg.getAttributes().getNamedItem("label");
                                 if(opt_item != null){
-                                    nameMatcher=attrExtractor.matcher(opt_item.toString());
-                                    if (nameMatcher.find()) //will be true
-                                        defarglabel= nameMatcher.group(1);
+                                    defarglabel= opt_item.getNodeValue();
                                 }
                                 genus.hasDefArgs = true;
                             }
@@ -708,8 +684,6 @@ public class BlockGenus {
        /* String workingDirectory = ((System.getProperty("application.home") != null) ?
                 System.getProperty("application.home") :
                     System.getProperty("user.dir"));*/
-        Pattern attrExtractor=Pattern.compile("\"(.*)\"");
-        Matcher nameMatcher;
         Node imageNode;
         String location = null;
         boolean isEditable = false;
@@ -719,28 +693,18 @@ public class BlockGenus {
             if(imageNode.getNodeName().equals("Image")){
                 if(imageNode.getAttributes().getLength() > 0){
                     //load image properties
-                    nameMatcher=attrExtractor.matcher(imageNode.getAttributes().getNamedItem("block-location").toString());
-                    if(nameMatcher.find()) //will be true
-                        location = nameMatcher.group(1);
-                    nameMatcher=attrExtractor.matcher(imageNode.getAttributes().getNamedItem("image-editable").toString());
-                    if(nameMatcher.find()) //will be true
-                        isEditable = nameMatcher.group(1).equals("yes") ? true : false;
-                    nameMatcher=attrExtractor.matcher(imageNode.getAttributes().getNamedItem("wrap-text").toString());
-                    if(nameMatcher.find()) //will be true
-                        textWrap = nameMatcher.group(1).equals("yes") ? true : false;
+                    location = imageNode.getAttributes().getNamedItem("block-location").getNodeValue();
+                    isEditable = imageNode.getAttributes().getNamedItem("image-editable").getNodeValue().equals("yes") ? true : false;
+                    textWrap = imageNode.getAttributes().getNamedItem("wrap-text").getNodeValue().equals("yes") ? true : false;
                     int width = -1;
                     int height = -1;
                     Node opt_item = imageNode.getAttributes().getNamedItem("width");
                     if(opt_item != null){
-                        nameMatcher=attrExtractor.matcher(opt_item.toString());
-                        if(nameMatcher.find()) //will be true
-                            width = Integer.parseInt(nameMatcher.group(1));
+                        width = Integer.parseInt(opt_item.getNodeValue());
                     }
                     opt_item = imageNode.getAttributes().getNamedItem("height");
                     if(opt_item != null){
-                        nameMatcher=attrExtractor.matcher(opt_item.toString());
-                        if(nameMatcher.find()) //will be true
-                            height = Integer.parseInt(nameMatcher.group(1));
+                        height = Integer.parseInt(opt_item.getNodeValue());
                     }
                     //load actual image
                     NodeList imageChildren = imageNode.getChildNodes();
@@ -779,22 +743,16 @@ public class BlockGenus {
      * @param genus BlockGenus to load the properties onto
      */
     private static void loadLangDefProperties(NodeList properties, BlockGenus genus){
-        Pattern attrExtractor=Pattern.compile("\"(.*)\"");
-        Matcher nameMatcher;
         Node prop;
         String key = null, value = null;
         for(int l = 0; l<properties.getLength(); l++){
             prop = properties.item(l);
             if(prop.getNodeName().equals("LangSpecProperty")){
                 if(prop.getAttributes().getLength() > 0){
-                    nameMatcher=attrExtractor.matcher(prop.getAttributes().getNamedItem("key").toString());
-                    if(nameMatcher.find()) //will be true
-                        key = nameMatcher.group(1);
+                    key = prop.getAttributes().getNamedItem("key").getNodeValue();
                     Node opt_item = prop.getAttributes().getNamedItem("value");
                     if(opt_item != null){
-                        nameMatcher=attrExtractor.matcher(opt_item.toString());
-                        if(nameMatcher.find()) //will be true
-                            value = nameMatcher.group(1);
+                        value = opt_item.getNodeValue();
                     }else{
                         value = prop.getTextContent();
                     }
@@ -811,17 +769,13 @@ public class BlockGenus {
      * @param genus BlockGenus to load stub information onto
      */
     private static void loadStubs(NodeList stubs, BlockGenus genus){
-        Pattern attrExtractor=Pattern.compile("\"(.*)\"");
-        Matcher nameMatcher;
         Node stub;
         String stubGenus = "";
         for(int m = 0; m<stubs.getLength(); m++){
             stub = stubs.item(m);
             if(stub.getNodeName().equals("Stub")){
                 if(stub.getAttributes().getLength() > 0){
-                    nameMatcher=attrExtractor.matcher(stub.getAttributes().getNamedItem("stub-genus").toString());
-                    if (nameMatcher.find()) //will be true
-                        stubGenus = nameMatcher.group(1);
+                    stubGenus = stub.getAttributes().getNamedItem("stub-genus").getNodeValue();
                     if(stub.hasChildNodes()){
                         //this stub for this genus deviates from generic stub
                         //generate genus by copying one of generic ones
@@ -851,8 +805,6 @@ public class BlockGenus {
      * @param root the Element carrying the specifications of the BlockGenuses
      */
     public static void loadBlockGenera(Element root){
-        Pattern attrExtractor=Pattern.compile("\"(.*)\"");
-        Matcher nameMatcher;
         NodeList genusNodes=root.getElementsByTagName("BlockGenus"); //look for genus
         for (int i=0; i<genusNodes.getLength(); i++){ //find them
             Node genusNode=genusNodes.item(i);
@@ -862,100 +814,57 @@ public class BlockGenus {
                 ///////////////////////////////////
                 BlockGenus newGenus=new BlockGenus();
                 //first, parse out the attributes
-                nameMatcher=attrExtractor.matcher(genusNode.getAttributes().getNamedItem("name").toString());
-                if (nameMatcher.find()) //will be true
-                    newGenus.genusName = nameMatcher.group(1);
+                newGenus.genusName = genusNode.getAttributes().getNamedItem("name").getNodeValue();
                 //assert that no other genus has this name
                 assert nameToGenus.get(newGenus.genusName) == null : "Block genus names must be unique.  A block genus already exists with this name: "+newGenus.genusName;
-                nameMatcher=attrExtractor.matcher(genusNode.getAttributes().getNamedItem("color").toString());
-                if (nameMatcher.find()){ //will be true
-                    newGenus.color = parseColor(nameMatcher.group(1));
-                }
+                newGenus.color = parseColor(genusNode.getAttributes().getNamedItem("color").getNodeValue());
 
-                nameMatcher = attrExtractor.matcher(genusNode.getAttributes().
-                    getNamedItem("kind").toString());
-                if (nameMatcher.find()) {//will be true
-                    newGenus.kind = nameMatcher.group(1);
-                }
+                newGenus.kind = genusNode.getAttributes().getNamedItem("kind").getNodeValue();
 
-                nameMatcher = attrExtractor.matcher(genusNode.getAttributes().
-                    getNamedItem("initlabel").toString());
-                if (nameMatcher.find()) {//implied that it is global, but it may be redefined
-                    newGenus.initLabel = nameMatcher.group(1);
-                }
+                newGenus.initLabel = genusNode.getAttributes().getNamedItem("initlabel").getNodeValue();
 
-                nameMatcher = attrExtractor.matcher(genusNode.getAttributes().
-                    getNamedItem("editable-label").toString());
                 //TODO: We might want to put an automated check here to make sure that no genus has
                 //both is-empty-label-allowed and label-unique enabled.
-                if (nameMatcher.find()) {//will be true
-                    newGenus.isLabelEditable = nameMatcher.group(1).equals("yes") ? true : false;
-                }
+                newGenus.isLabelEditable = genusNode.getAttributes().
+                    getNamedItem("editable-label").getNodeValue().equals("yes") ? true : false;
 
-                nameMatcher = attrExtractor.matcher(genusNode.getAttributes().
-                    getNamedItem("is-empty-label-allowed").toString());
-                if (nameMatcher.find()) {//will be true
-                    newGenus.isEmptyLabelAllowed = nameMatcher.group(1).equals("yes") ? true : false;
-                }
+                newGenus.isEmptyLabelAllowed = genusNode.getAttributes().getNamedItem("is-empty-label-allowed").getNodeValue().equals("yes") ? true : false;
 
-                nameMatcher = attrExtractor.matcher(genusNode.getAttributes().
-                    getNamedItem("label-unique").toString());
-                if (nameMatcher.find()) {//will be true
-                    newGenus.labelMustBeUnique = nameMatcher.group(1).equals("yes") ? true : false;
-                }
+                newGenus.labelMustBeUnique = genusNode.getAttributes().getNamedItem("label-unique").getNodeValue().equals("yes") ? true : false;
 
                 //load optional items
                 Node opt_item = genusNode.getAttributes().getNamedItem("is-starter");
                 if(opt_item != null){
-                    nameMatcher=attrExtractor.matcher(opt_item.toString());
-                    if (nameMatcher.find()) //will be true
-                        newGenus.isStarter= nameMatcher.group(1).equals("yes") ? true : false;
+                    newGenus.isStarter= opt_item.getNodeValue().equals("yes") ? true : false;
                 }
                 opt_item = genusNode.getAttributes().getNamedItem("is-terminator");
                 if(opt_item != null){
-                    nameMatcher=attrExtractor.matcher(opt_item.toString());
-                    if (nameMatcher.find()) //will be true
-                        newGenus.isTerminator= nameMatcher.group(1).equals("yes") ? true : false;
+                    newGenus.isTerminator= opt_item.getNodeValue().equals("yes") ? true : false;
                 }
                 opt_item = genusNode.getAttributes().getNamedItem("is-label-value");
                 if(opt_item != null){
-                    nameMatcher=attrExtractor.matcher(opt_item.toString());
-                    if (nameMatcher.find()) //will be true
-                        newGenus.isLabelValue= nameMatcher.group(1).equals("yes") ? true : false;
+                    newGenus.isLabelValue= opt_item.getNodeValue().equals("yes") ? true : false;
                 }
                 opt_item = genusNode.getAttributes().getNamedItem("label-prefix");
                 if(opt_item != null){
-                    nameMatcher=attrExtractor.matcher(opt_item.toString());
-                    if (nameMatcher.find()) //will be true
-                        newGenus.labelPrefix= nameMatcher.group(1);
+                    newGenus.labelPrefix= opt_item.getNodeValue();
                 }
                 opt_item = genusNode.getAttributes().getNamedItem("decorator");
                 if (opt_item != null) {
-                    nameMatcher = attrExtractor.matcher(opt_item.toString());
-                    if (nameMatcher.find()) {
-                        newGenus.decorator = nameMatcher.group(1);
-                    }
+                    newGenus.decorator = opt_item.getNodeValue();
                 }
                 opt_item = genusNode.getAttributes().getNamedItem("label-filter");
                 if (opt_item != null) {
-                    nameMatcher = attrExtractor.matcher(opt_item.toString());
-                    if (nameMatcher.find()) {
-                      newGenus.labelFilter = LabelFilterFactory.valueOf(nameMatcher.group(1));
-                    }
+                    newGenus.labelFilter = LabelFilterFactory.valueOf(opt_item.getNodeValue());
                 }
                 opt_item = genusNode.getAttributes().getNamedItem("label-suffix");
                 if(opt_item != null){
-                    nameMatcher=attrExtractor.matcher(opt_item.toString());
-                    if (nameMatcher.find()) //will be true
-                        newGenus.labelSuffix = nameMatcher.group(1);
+                    newGenus.labelSuffix = opt_item.getNodeValue();
                 }
                 opt_item = genusNode.getAttributes().getNamedItem("page-label-enabled");
                 if (opt_item != null){
-                    nameMatcher = attrExtractor.matcher(opt_item.toString());
-                    if (nameMatcher.find()) {//will be true
-                      newGenus.isPageLabelEnabled = nameMatcher.group(1).equals("yes")
-                          ? true : false;
-                    }
+                    newGenus.isPageLabelEnabled = opt_item.getNodeValue().equals("yes")
+                        ? true : false;
                 }
                 //if genus is a data genus (kind=data) or a variable block (and soon a declaration block)
                 //it is both a starter and terminator
@@ -1071,21 +980,11 @@ public class BlockGenus {
                 BlockGenus newGenus = new BlockGenus();
                 // First, parse out the attributes.
                 // ObsoleteBlockGenus entries only have name, initlabel, and color.
-                nameMatcher = attrExtractor.matcher(
-                    genusNode.getAttributes().getNamedItem("name").toString());
-                if (nameMatcher.find()) { // will be true
-                  newGenus.genusName = nameMatcher.group(1);
-                }
-                nameMatcher = attrExtractor.matcher(
-                    genusNode.getAttributes().getNamedItem("initlabel").toString());
-                if (nameMatcher.find()) {
-                  newGenus.initLabel = nameMatcher.group(1);
-                }
-                nameMatcher = attrExtractor.matcher(
-                    genusNode.getAttributes().getNamedItem("color").toString());
-                if (nameMatcher.find()){ //will be true
-                  newGenus.color = parseColor(nameMatcher.group(1));
-                }
+                newGenus.genusName = genusNode.getAttributes().getNamedItem("name").getNodeValue();
+                newGenus.initLabel =
+                    genusNode.getAttributes().getNamedItem("initlabel").getNodeValue();
+                newGenus.color =
+                    parseColor(genusNode.getAttributes().getNamedItem("color").getNodeValue());
                 obsoleteGenii.put(newGenus.genusName, newGenus);
             }
         }
@@ -6,7 +6,6 @@ package openblocks.codeblocks;
 
 import java.awt.geom.Point2D;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.Collections;
 
 import openblocks.renderable.RenderableBlock;
@@ -32,6 +31,14 @@ public class BlockLinkChecker {
     // TODO get a better value
     private static double MAX_LINK_DISTANCE = 20.0;
     
+    /**
+     * @return the distance, in pixels, within which two connectors may link;
+     * callers use it to narrow down the blocks passed to getLink()
+     */
+    public static int getMaxLinkDistance(){
+        return (int) Math.ceil(MAX_LINK_DISTANCE);
+    }
+
     /**
      * Clears all the rules within this.
      */
@@ -98,7 +105,7 @@ public class BlockLinkChecker {
      *  <code>BlockConnector</code>s in these blocks, or null if no such matching exists.\
      */
     public static BlockLink getLink(RenderableBlock rblock1, Iterable<RenderableBlock> otherBlocks) {
-    		if (rblock1.isCollapsed()) {
+    		if (rblock1.isCollapsed() || !rblock1.isVisible()) {
     		  return null;      //  Collapsed blocks can't link.
     		}
     		Block block1 = Block.getBlock(rblock1.getBlockID());
@@ -107,34 +114,41 @@ public class BlockLinkChecker {
     		Block closestBlock2 = null;
     		double closestDistance = MAX_LINK_DISTANCE;
 
+    		// The dragged block's connector positions do not depend on the
+    		// candidate, so work them out once rather than per block.
+    		BlockConnector plug1 = getPlugEquivalent(block1);
+    		Point2D plug1Point = plug1 == null ? null : getAbsoluteSocketPoint(rblock1, plug1);
+    		ArrayList<BlockConnector> sockets1 = new ArrayList<BlockConnector>();
+    		ArrayList<Point2D> socket1Points = new ArrayList<Point2D>();
+    		for (BlockConnector socket : getSocketEquivalents(block1)) {
+    			sockets1.add(socket);
+    			socket1Points.add(getAbsoluteSocketPoint(rblock1, socket));
+    		}
+
     		for (RenderableBlock rblock2 : otherBlocks) {
-        		BlockConnector currentPlug = getPlugEquivalent(block1);
 	    		Block block2 = Block.getBlock(rblock2.getBlockID());	            
-	    		if (block1.equals(block2) || !rblock1.isVisible() || !rblock2.isVisible() 
-	    		    || rblock1.isCollapsed() || rblock2.isCollapsed())
+	    		if (block1.equals(block2) || !rblock2.isVisible() || rblock2.isCollapsed())
 	    			continue;
-	    		Point2D currentPlugPoint = null;
 	    		Point2D currentSocketPoint = null;
-	    		if (currentPlug != null) {
-	    			currentPlugPoint = getAbsoluteSocketPoint(rblock1, currentPlug);
+	    		if (plug1 != null) {
 		    		for (BlockConnector currentSocket : getSocketEquivalents(block2)) {
 		    			currentSocketPoint = getAbsoluteSocketPoint(rblock2, currentSocket);
-		    			double currentDistance = currentPlugPoint.distance(currentSocketPoint);
-		    			if ((currentDistance < closestDistance) && checkRules(block1, block2, currentPlug, currentSocket)) {
+		    			double currentDistance = plug1Point.distance(currentSocketPoint);
+		    			if ((currentDistance < closestDistance) && checkRules(block1, block2, plug1, currentSocket)) {
 		    				closestBlock2 = block2;
-		    				closestSocket1 = currentPlug;
+		    				closestSocket1 = plug1;
 		    				closestSocket2 = currentSocket;
 		    				closestDistance = currentDistance;
 		    			}
 		    		}
 	    		}
 	    		
-	    		currentPlug = getPlugEquivalent(block2);
-	    		if (currentPlug != null) {
-	    			currentPlugPoint = getAbsoluteSocketPoint(rblock2, currentPlug);
-		    		for (BlockConnector currentSocket : getSocketEquivalents(block1)) {
-		    			currentSocketPoint = getAbsoluteSocketPoint(rblock1, currentSocket);
-		    			double currentDistance = currentPlugPoint.distance(currentSocketPoint);
+	    		BlockConnector currentPlug = getPlugEquivalent(block2);
+	    		if (currentPlug != null && !sockets1.isEmpty()) {
+	    			Point2D currentPlugPoint = getAbsoluteSocketPoint(rblock2, currentPlug);
+		    		for (int i = 0; i < sockets1.size(); i++) {
+		    			BlockConnector currentSocket = sockets1.get(i);
+		    			double currentDistance = currentPlugPoint.distance(socket1Points.get(i));
 		    			if ((currentDistance < closestDistance) && checkRules(block1, block2, currentSocket, currentPlug)) {
 		    				closestBlock2 = block2;
 		    				closestSocket1 = currentSocket;
@@ -229,16 +243,18 @@ public class BlockLinkChecker {
      * @return true if the pairing of block1 and block2 at socket1 and socket2 passes any rules, false otherwise
      */
     private static boolean checkRules(Block block1, Block block2, BlockConnector socket1, BlockConnector socket2) {
-    		Iterator<LinkRule> rulesList = Collections.unmodifiableList(rules).iterator();
-    		LinkRule currentRule = null;
+    		// Every mandatory rule is asked, in order, even about pairings that no
+    		// optional rule accepts, because YaRule tells the user about misplaced
+    		// blocks.  The optional rules have no side effects, so stop asking them
+    		// once one has passed.
     		boolean foundRule = false;
-    		while(rulesList.hasNext()) {
-    			currentRule = rulesList.next();
-    			boolean canLink = currentRule.canLink(block1, block2, socket1, socket2);
-    			if (!currentRule.isMandatory())
-    				foundRule |= canLink;
-    			else if (!canLink)
-    				return false;
+    		for (LinkRule rule : rules) {
+    			if (rule.isMandatory()) {
+    				if (!rule.canLink(block1, block2, socket1, socket2))
+    					return false;
+    			} else if (!foundRule) {
+    				foundRule = rule.canLink(block1, block2, socket1, socket2);
+    			}
     		}
     		return foundRule;
     }
@@ -240,6 +240,35 @@ public class BlockStub extends Block {
     parentNameToParentBlocks.clear();
   }
 
+  /** The mappings between parents and stubs of a detached workspace */
+  private static class StubMaps {
+    HashMap<String, Set<Long>> parentNameToParentBlocks;
+    HashMap<String, Set<Long>> parentNameToBlockStubs;
+  }
+
+  /**
+   * Takes away all the mappings between parents and stubs, leaving them as
+   * reset() would, and returns them for attachStubMaps().
+   */
+  public static Object detachStubMaps() {
+    StubMaps maps = new StubMaps();
+    maps.parentNameToParentBlocks = parentNameToParentBlocks;
+    maps.parentNameToBlockStubs = parentNameToBlockStubs;
+    parentNameToParentBlocks = new HashMap<String, Set<Long>>();
+    parentNameToBlockStubs = new HashMap<String, Set<Long>>();
+    return maps;
+  }
+
+  /**
+   * Replaces all the mappings between parents and stubs with ones returned by
+   * detachStubMaps().
+   */
+  public static void attachStubMaps(Object detached) {
+    StubMaps maps = (StubMaps) detached;
+    parentNameToParentBlocks = maps.parentNameToParentBlocks;
+    parentNameToBlockStubs = maps.parentNameToBlockStubs;
+  }
+
   /**
    * Removes the ID of a deleted block from all the stub lists.
    * Important when deleting procedure definitions.
@@ -808,8 +837,7 @@ public class BlockStub extends Block {
   ////////////////////////
 
   @Override
-  public String getSaveString(String renderablesStuff) {
-    StringBuffer buf = new StringBuffer();
+  public void appendSaveString(String renderablesStuff, StringBuilder buf) {
     buf.append("<BlockStub>");
     buf.append("<StubParentName>");
     buf.append(parentName);
@@ -817,8 +845,7 @@ public class BlockStub extends Block {
     buf.append("<StubParentGenus>");
     buf.append(parentGenus);
     buf.append("</StubParentGenus>");
-    buf.append(super.getSaveString(renderablesStuff));
+    super.appendSaveString(renderablesStuff, buf);
     buf.append("</BlockStub>\n");
-    return buf.toString();
   }
 }
@@ -38,17 +38,23 @@ public class ComplaintDepartment {
 
   private static final List<String> compileErrors = new ArrayList<String>();
   private static Rectangle complaintRect;
+  // Counts every complaint ever posted, so callers can tell whether a piece
+  // of work produced any.
+  private static int complaintCount = 0;
   private long blockID;
 
   public ComplaintDepartment(long bID) {
     blockID = bID;
   }
 
+  /**
+   * Removes all complaints. Called before every translation, including the
+   * REPL's translation of a single changed declaration, so this only visits
+   * the blocks that have a complaint rather than every block.
+   */
   public static void clearComplaints() {
-    for (RenderableBlock rb : RenderableBlock.getAllRenderableBlocks()) {
-      if (rb.hasComplaint()) {
-        rb.removeComplaint();
-      }
+    for (RenderableBlock rb : RenderableBlock.getComplainedBlocks()) {
+      rb.removeComplaint();
     }
     compileErrors.clear();
     complaintRect = new Rectangle(0, 0, -1, -1);
@@ -62,6 +68,7 @@ public class ComplaintDepartment {
    * @param severe true means fatal error
    */
    public void complain(String complaint, boolean severe)  {
+    complaintCount++;
     if (severe) {
       compileErrors.add(complaint);
     }
@@ -83,6 +90,14 @@ public class ComplaintDepartment {
   }
 
 
+  /**
+   * @return the number of complaints posted since the editor started. Only
+   * differences between two calls are meaningful.
+   */
+  public static int getComplaintCount() {
+    return complaintCount;
+  }
+
   /* Called from yacodeblocks.WorkSpaceController at the end of compilation.
    *
    * @return number of errors
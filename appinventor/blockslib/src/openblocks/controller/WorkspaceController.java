@@ -464,10 +464,13 @@ public class WorkspaceController {
 
     /**
      * Returns a SearchBar instance capable of searching for blocks
-     * within the BlockCanvas and block drawers
+     * within the BlockCanvas and block drawers.  The search bar is created
+     * on the first call and shared by later ones.
      */
     public JComponent getSearchBar(){
-        SearchBar searchBar = new SearchBar("Search blocks", "Search for blocks in the drawers and workspace", workspace);
+        if (searchBar == null) {
+            searchBar = new SearchBar("Search blocks", "Search for blocks in the drawers and workspace", workspace);
+        }
         for(SearchableContainer con : getAllSearchableContainers()){
             searchBar.addSearchableContainer(con);
         }
@@ -503,10 +506,7 @@ public class WorkspaceController {
         frame.setBounds(100, 100, 500, 500);
 
         //create search bar
-        SearchBar searchBar = new SearchBar("Search blocks", "Search for blocks in the drawers and workspace", workspace);
-        for(SearchableContainer con : wc.getAllSearchableContainers()){
-            searchBar.addSearchableContainer(con);
-        }
+        JComponent searchBar = wc.getSearchBar();
 
         /*JButton saveButton = new JButton("Save");
         saveButton.addActionListener(new ActionListener() {
@@ -516,8 +516,8 @@ public class WorkspaceController {
         });*/
 
         JPanel topPane = new JPanel();
-        searchBar.getComponent().setPreferredSize(new Dimension(130, 23));
-        topPane.add(searchBar.getComponent());
+        searchBar.setPreferredSize(new Dimension(130, 23));
+        topPane.add(searchBar);
         //topPane.add(saveButton);
         frame.add(topPane, BorderLayout.PAGE_START);
         frame.add(wc.getWorkspacePanel(), BorderLayout.CENTER);
@@ -41,13 +41,35 @@ public class BlockUtilities {
   // Map from genusName+label -> counter. Keeps an instance counter for each <genus, label>
   // pair. We add the label into the key so that we don't end up with, e.g., x1, y2, z3 instead of
   // x1, y1, z1 for x, y, z arguments.
-  private static final Map<String, Integer> instanceCounter = new HashMap<String, Integer>();
+  private static Map<String, Integer> instanceCounter = new HashMap<String, Integer>();
   private static double zoom = 1.0;
+  /** The blocks in the drawers, indexed for getAllMatchingBlocks() */
+  private static final FactoryBlockIndex factoryBlockIndex = new FactoryBlockIndex();
 
   public static void reset(){
     zoom = 1.0;
     instanceCounter.clear();
   }
+
+  /**
+   * Takes away the instance counters, leaving them as reset() would, and
+   * returns them for attachInstanceCounters().
+   */
+  public static Object detachInstanceCounters(){
+    Map<String, Integer> counters = instanceCounter;
+    zoom = 1.0;
+    instanceCounter = new HashMap<String, Integer>();
+    return counters;
+  }
+
+  /**
+   * Replaces the instance counters with ones returned by
+   * detachInstanceCounters().
+   */
+  @SuppressWarnings("unchecked")
+  public static void attachInstanceCounters(Object detached){
+    instanceCounter = (Map<String, Integer>) detached;
+  }
   public static void setZoomLevel(double newZoom) {
     zoom = newZoom;
   }
@@ -609,36 +631,31 @@ public class BlockUtilities {
       keyword = inputKeyword;
     }
 
-    //Use Set such that we don't get any repeats
-    Set<TextualFactoryBlock> matchingBlocks = new TreeSet<TextualFactoryBlock>(new MatchingComparator(keyword));
+    String lowerKeyword = keyword.toLowerCase();
+    boolean quote = keyword.startsWith("\"");
 
-    //find all FactoryRenderableBlocks and check for a match
-    for(RenderableBlock renderable : Workspace.getInstance().getFactoryManager().getBlocks()){
-
-      // TODO: don't assume they're all FactoryRenderableBlocks!  Collisions aren't...
-      if(renderable==null || renderable.getBlockID().equals(Block.NULL) || !(renderable instanceof FactoryRenderableBlock)){
-        continue;
-      }
+    //Use Set such that we don't get any repeats
+    Set<Match> matches = new TreeSet<Match>();
 
+    //check the factory blocks that might match
+    for (FactoryBlockIndex.Entry entry : factoryBlockIndex.getCandidates(lowerKeyword)) {
       // first, check if query matches block keyword
-      if(renderable.getKeyword().toLowerCase().contains(keyword.toLowerCase())){
-        matchingBlocks.add(new TextualFactoryBlock((FactoryRenderableBlock)renderable, renderable.getBlock().getBlockLabel()));
+      if (entry.lowerKeyword.contains(lowerKeyword)) {
+        matches.add(new Match(new TextualFactoryBlock(entry.block, entry.keyword,
+            entry.disambiguation), lowerKeyword));
       }
 
-      // grabs the quote block needed TODO: needs to be independent!
-      if(keyword.startsWith("\"") && renderable.getBlock().getGenusName().equalsIgnoreCase("string")){
-        String[] quote = keyword.split("\"");
-        // makes sure that there is text after the " so that it can be placed onto the block
-        if(quote.length > 1) {
-          matchingBlocks.add(new TextualFactoryBlock((FactoryRenderableBlock)renderable, "\"" + quote[1] + "\""));
-        }
+      // the quote block is handled below
+      if (quote && entry.isString) {
+        continue;
       }
 
       // otherwise, if the keyword is too long, check to see if
       // the user is trying to type extra info for disambiguation
-      else if (keyword.length() > renderable.getKeyword().length()) {
-        if(disambiguousStringRep(renderable).toLowerCase().contains(keyword.toLowerCase())){
-          matchingBlocks.add(new TextualFactoryBlock((FactoryRenderableBlock)renderable,disambiguousStringRep(renderable)));
+      if (keyword.length() > entry.keyword.length()) {
+        if (entry.lowerDisambiguation.contains(lowerKeyword)) {
+          matches.add(new Match(new TextualFactoryBlock(entry.block, entry.disambiguation,
+              entry.disambiguation), lowerKeyword));
         }
       }
 
@@ -648,10 +665,27 @@ public class BlockUtilities {
 
     }
 
+    // grabs the quote block needed TODO: needs to be independent!
+    if (quote) {
+      String[] parts = keyword.split("\"");
+      // makes sure that there is text after the " so that it can be placed onto the block
+      if (parts.length > 1) {
+        for (FactoryBlockIndex.Entry entry : factoryBlockIndex.getStringEntries()) {
+          matches.add(new Match(new TextualFactoryBlock(entry.block, "\"" + parts[1] + "\"",
+              entry.disambiguation), lowerKeyword));
+        }
+      }
+    }
+
+    List<TextualFactoryBlock> disambiguatedMatches =
+        new ArrayList<TextualFactoryBlock>(matches.size());
+    for (Match match : matches) {
+      disambiguatedMatches.add(match.block);
+    }
+
     /* if blocks have the same labels, the search results will be ambiguous.
      * the following expands the string representation of the TFB if needed
      * to disambiguate the blocks. */
-    ArrayList<TextualFactoryBlock> disambiguatedMatches = new ArrayList<TextualFactoryBlock>(matchingBlocks);
     TextualFactoryBlock t1, t2;
     for (int i = 0; i < disambiguatedMatches.size(); i++) {
       t1 = disambiguatedMatches.get(i);
@@ -735,6 +769,39 @@ public class BlockUtilities {
 
 
 
+  /**
+   * Invalidates the index of drawer blocks used by getAllMatchingBlocks().
+   * Called at the start of each typeblocking session, since block labels can
+   * change without the workspace being told.
+   */
+  public static void invalidateMatchingBlocksIndex() {
+    factoryBlockIndex.invalidate();
+  }
+
+  /**
+   * A block found by getAllMatchingBlocks(), with the keys it is sorted on
+   * worked out once. Sorts like MatchingComparator.
+   */
+  private static class Match implements Comparable<Match> {
+    final TextualFactoryBlock block;
+    final int position;
+    final String lowerID;
+
+    Match(TextualFactoryBlock block, String lowerKeyword) {
+      this.block = block;
+      this.position = block.toString().toLowerCase().indexOf(lowerKeyword);
+      this.lowerID = block.getLowerCaseID();
+    }
+
+    public int compareTo(Match other) {
+      int c = lowerID.compareTo(other.lowerID);
+      if (c == 0 || position == other.position) {
+        return c;
+      }
+      return position > other.position ? 1 : -1;
+    }
+  }
+
   /**
    * Comparator used by getAllMatchingBlocks() to sort according to the position in the word that the match occurs,
    * then according to the sort order of TextualFactoryBlocks
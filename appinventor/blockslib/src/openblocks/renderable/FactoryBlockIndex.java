@@ -0,0 +1,149 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2009-2011 Google, All Rights reserved
+// Copyright 2011-2012 MIT, All rights reserved
+// Released under the MIT License https://raw.github.com/mit-cml/app-inventor/master/mitlicense.txt
+
+package openblocks.renderable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import openblocks.codeblocks.Block;
+import openblocks.workspace.FactoryManager;
+import openblocks.workspace.Workspace;
+
+/**
+ * An index of the blocks in the drawers, used by typeblocking so that each
+ * keystroke doesn't have to visit and lowercase every block.
+ *
+ * Blocks are indexed by the trigrams (three character substrings) of their
+ * lowercased keywords and disambiguation strings. A query of three or more
+ * characters only needs to look at the blocks listed under the query's rarest
+ * trigram; shorter queries look at every block, but use the lowercased strings
+ * kept here.
+ *
+ * The index is rebuilt after the drawers change or a workspace event is
+ * fired, and at the start of each typeblocking session, since labels can
+ * change without either.
+ */
+class FactoryBlockIndex {
+  private static final int GRAM_LENGTH = 3;
+
+  /**
+   * A block in the drawers and its strings.
+   */
+  static class Entry {
+    final FactoryRenderableBlock block;
+    final String keyword;
+    final String lowerKeyword;
+    final String disambiguation;
+    final String lowerDisambiguation;
+    final boolean isString;
+
+    Entry(FactoryRenderableBlock block) {
+      this.block = block;
+      keyword = block.getKeyword();
+      lowerKeyword = keyword.toLowerCase();
+      disambiguation = BlockUtilities.disambiguousStringRep(block);
+      lowerDisambiguation = disambiguation.toLowerCase();
+      isString = block.getBlock().getGenusName().equalsIgnoreCase("string");
+    }
+  }
+
+  private final List<Entry> entries = new ArrayList<Entry>();
+  private final List<Entry> stringEntries = new ArrayList<Entry>();
+  private final Map<String, List<Entry>> entriesByGram = new HashMap<String, List<Entry>>();
+
+  private boolean valid = false;
+  private FactoryManager factoryManager;
+  private int drawerModCount;
+  private int workspaceEventCount;
+
+  /**
+   * Marks the index out of date, so that it is rebuilt on the next lookup.
+   */
+  void invalidate() {
+    valid = false;
+  }
+
+  /**
+   * Returns the entries whose keyword or disambiguation string might contain
+   * lowerQuery. The caller still has to check each entry.
+   */
+  List<Entry> getCandidates(String lowerQuery) {
+    update();
+    if (lowerQuery.length() < GRAM_LENGTH) {
+      return entries;
+    }
+    List<Entry> candidates = null;
+    for (int i = 0; i + GRAM_LENGTH <= lowerQuery.length(); i++) {
+      List<Entry> list = entriesByGram.get(lowerQuery.substring(i, i + GRAM_LENGTH));
+      if (list == null) {
+        return Collections.emptyList();
+      }
+      if (candidates == null || list.size() < candidates.size()) {
+        candidates = list;
+      }
+    }
+    return candidates;
+  }
+
+  /**
+   * Returns the entries for the text blocks.
+   */
+  List<Entry> getStringEntries() {
+    update();
+    return stringEntries;
+  }
+
+  private void update() {
+    Workspace workspace = Workspace.getInstance();
+    FactoryManager manager = workspace.getFactoryManager();
+    if (valid && manager == factoryManager
+        && manager.getDrawerModCount() == drawerModCount
+        && workspace.getEventCount() == workspaceEventCount) {
+      return;
+    }
+    entries.clear();
+    stringEntries.clear();
+    entriesByGram.clear();
+    Set<String> grams = new HashSet<String>();
+    for (RenderableBlock renderable : manager.getBlocks()) {
+      if (renderable == null || renderable.getBlockID().equals(Block.NULL)
+          || !(renderable instanceof FactoryRenderableBlock)) {
+        continue;
+      }
+      Entry entry = new Entry((FactoryRenderableBlock) renderable);
+      entries.add(entry);
+      if (entry.isString) {
+        stringEntries.add(entry);
+      }
+      grams.clear();
+      addGrams(entry.lowerKeyword, grams);
+      addGrams(entry.lowerDisambiguation, grams);
+      for (String gram : grams) {
+        List<Entry> list = entriesByGram.get(gram);
+        if (list == null) {
+          list = new ArrayList<Entry>();
+          entriesByGram.put(gram, list);
+        }
+        list.add(entry);
+      }
+    }
+    factoryManager = manager;
+    drawerModCount = manager.getDrawerModCount();
+    workspaceEventCount = workspace.getEventCount();
+    valid = true;
+  }
+
+  private static void addGrams(String text, Set<String> grams) {
+    for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+      grams.add(text.substring(i, i + GRAM_LENGTH));
+    }
+  }
+}
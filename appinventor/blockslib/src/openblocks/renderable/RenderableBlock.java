@@ -26,6 +26,7 @@ import openblocks.workspace.FactoryCanvas;
 import openblocks.workspace.FactoryManager;
 import openblocks.workspace.ISupportMemento;
 import openblocks.workspace.MiniMap;
+import openblocks.workspace.Page;
 import openblocks.workspace.RBParent;
 import openblocks.workspace.SearchableElement;
 import openblocks.workspace.TrashCan;
@@ -60,6 +61,7 @@ import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -154,8 +156,10 @@ public class RenderableBlock extends JComponent implements SearchableElement,
   /** The alpha level while dragging - lower means more transparent */
   private static final  float DRAGGING_ALPHA = 0.66F;
   /** Mapping from blockID to the corresponding RenderableBlock instance */
-  private static final Map<Long, RenderableBlock> ALL_RENDERABLE_BLOCKS =
+  private static Map<Long, RenderableBlock> ALL_RENDERABLE_BLOCKS =
       new HashMap<Long, RenderableBlock>();
+  /** The blockIDs of the RenderableBlocks that have a Complaint attached */
+  private static Set<Long> COMPLAINED_BLOCKS = new HashSet<Long>();
 
   // COMPONENT FIELDS
   /** BlockID of this.  MAY BE Block.NULL */
@@ -464,6 +468,18 @@ public class RenderableBlock extends JComponent implements SearchableElement,
     setLocation(p.x, p.y);
   }
 
+  /**
+   * Moves and resizes this component, keeping the spatial index of the
+   * page it sits on up to date.
+   */
+  @Override
+  public void setBounds(int x, int y, int width, int height) {
+    super.setBounds(x, y, width, height);
+    if (parent instanceof Page) {
+      ((Page) parent).blockMoved(this);
+    }
+  }
+
 
   /**
    * Returns the width of the stroke used to draw the highlight.
@@ -570,12 +586,53 @@ public class RenderableBlock extends JComponent implements SearchableElement,
       System.out.println("reseting all renderable blocks");
     }
     ALL_RENDERABLE_BLOCKS.clear();
+    COMPLAINED_BLOCKS.clear();
     BlockUtilities.reset();
     Block.reset();
     BlockStub.reset();
     System.gc();
   }
 
+  /** The renderable block and block instances of a detached workspace */
+  private static class Registry {
+    Map<Long, RenderableBlock> renderableBlocks;
+    Set<Long> complainedBlocks;
+    Object instanceCounters;
+    Object blocks;
+    Object stubMaps;
+  }
+
+  /**
+   * Takes away all renderable block instances and all block instances,
+   * leaving them as reset() would, and returns them for attachRegistry().
+   * The blocks stay alive, so that a workspace can be put aside and brought
+   * back without reloading it.
+   */
+  public static Object detachRegistry(){
+    Registry registry = new Registry();
+    registry.renderableBlocks = ALL_RENDERABLE_BLOCKS;
+    registry.complainedBlocks = COMPLAINED_BLOCKS;
+    registry.instanceCounters = BlockUtilities.detachInstanceCounters();
+    registry.blocks = Block.detachRegistry();
+    registry.stubMaps = BlockStub.detachStubMaps();
+    ALL_RENDERABLE_BLOCKS = new HashMap<Long, RenderableBlock>();
+    COMPLAINED_BLOCKS = new HashSet<Long>();
+    return registry;
+  }
+
+  /**
+   * Replaces all renderable block instances and all block instances with
+   * ones returned by detachRegistry().
+   */
+  public static void attachRegistry(Object detached){
+    Registry registry = (Registry) detached;
+    ALL_RENDERABLE_BLOCKS = registry.renderableBlocks;
+    COMPLAINED_BLOCKS = registry.complainedBlocks;
+    BlockUtilities.attachInstanceCounters(registry.instanceCounters);
+    Block.attachRegistry(registry.blocks);
+    BlockStub.attachStubMaps(registry.stubMaps);
+  }
+
   public JComponentDragHandler getDragHandler() {
     return dragHandler;
   }
@@ -868,7 +925,8 @@ public class RenderableBlock extends JComponent implements SearchableElement,
    * If block is collapsed it will return null.
    */
   public BlockLink getNearbyLink(){
-    return BlockLinkChecker.getLink(this, Workspace.getInstance().getBlockCanvas().getBlocks());
+    return BlockLinkChecker.getLink(this, Workspace.getInstance().getBlockCanvas().getBlocksNear(
+        this, BlockLinkChecker.getMaxLinkDistance()));
   }
 
   ///////////////////////
@@ -1109,6 +1167,18 @@ public class RenderableBlock extends JComponent implements SearchableElement,
     return  ALL_RENDERABLE_BLOCKS.values();
   }
 
+  /**
+   * @return the RenderableBlocks that have a Complaint attached, in a new
+   * list that can be changed while removing their complaints
+   */
+  public static List<RenderableBlock> getComplainedBlocks(){
+    List<RenderableBlock> blocks = new ArrayList<RenderableBlock>(COMPLAINED_BLOCKS.size());
+    for (Long id : COMPLAINED_BLOCKS) {
+      blocks.add(ALL_RENDERABLE_BLOCKS.get(id));
+    }
+    return blocks;
+  }
+
   //// BLOCK RESIZING ////
 
   /**
@@ -1348,6 +1418,8 @@ public class RenderableBlock extends JComponent implements SearchableElement,
    */
   public void repaintBlock() {
     blockImage.clearBufferedImage();
+    // The MiniMap only redraws blocks it is told have changed.
+    Workspace.getInstance().getMiniMap().blockChanged(this);
     if (isVisible()){
       //NOTE: If it's not visible, this will throw an exception.
       //as during the redraw, it will try to access location information
@@ -1504,6 +1576,9 @@ public class RenderableBlock extends JComponent implements SearchableElement,
   // BLOCK NOTE  MANAGEMENT //
 
   private void attach(BlockNote bn) {
+    if (bn instanceof Complaint) {
+      COMPLAINED_BLOCKS.add(blockID);
+    }
     add(bn.getBlockNoteLabel());
     blockNotes.add(bn);
     blockNotesChanged = true;
@@ -1512,6 +1587,9 @@ public class RenderableBlock extends JComponent implements SearchableElement,
   }
 
   private void removeBlockNote(BlockNote bn){
+    if (bn instanceof Complaint) {
+      COMPLAINED_BLOCKS.remove(blockID);
+    }
     bn.delete();
     blockNotes.remove(bn);
     blockNotesChanged = true;
@@ -2090,6 +2168,7 @@ public class RenderableBlock extends JComponent implements SearchableElement,
     if (highlighter != null) {
       highlighter.setIsSearchResult(isSearchResult);
     }
+    Workspace.getInstance().getMiniMap().blockChanged(this);
     // repaintBlock();
   }
 
@@ -2105,6 +2184,16 @@ public class RenderableBlock extends JComponent implements SearchableElement,
    */
   public String getSaveString(){
     StringBuilder saveString = new StringBuilder();
+    appendSaveString(saveString);
+    return saveString.toString();
+  }
+
+  /**
+   * Appends the save string of this to buf
+   * @param buf the buffer to write to
+   */
+  public void appendSaveString(StringBuilder buf){
+    StringBuilder saveString = new StringBuilder();
 
     if (isCollapsed()) {
       saveString.append("<Collapsed/>\n");
@@ -2125,7 +2214,7 @@ public class RenderableBlock extends JComponent implements SearchableElement,
       saveString.append("<Deactivated/>\n");
     }
 
-    return getBlock().getSaveString(saveString.toString());
+    getBlock().appendSaveString(saveString.toString(), buf);
   }
 
   /**
@@ -16,6 +16,7 @@ public class TextualFactoryBlock {
   private final FactoryRenderableBlock block;
   private final String stringRepresentation;
   private final String ID;
+  private final String lowerCaseID;
 
   /**
    * Creates a TextualFactoryBlock with the given block and string representation
@@ -24,9 +25,17 @@ public class TextualFactoryBlock {
    * block's label.  To auto-generate a detailed rep, use the disambiguousStringRep() method.
    */
   public TextualFactoryBlock(FactoryRenderableBlock block, String rep){
+    this(block, rep, BlockUtilities.disambiguousStringRep(block));
+  }
+
+  /**
+   * Creates a TextualFactoryBlock, given the block's disambiguousStringRep().
+   */
+  TextualFactoryBlock(FactoryRenderableBlock block, String rep, String disambiguousStringRep){
     this.block = block;
     this.stringRepresentation = rep;
-    this.ID = BlockUtilities.disambiguousStringRep(block);
+    this.ID = disambiguousStringRep;
+    this.lowerCaseID = disambiguousStringRep.toLowerCase();
   }
   /** @return FactoryBlock contained in this TextualFactoryBlock */
   public FactoryRenderableBlock getfactoryBlock(){
@@ -44,7 +53,12 @@ public class TextualFactoryBlock {
     return false;
   }
   public int compareTo(TextualFactoryBlock b2){
-    return this.ID.toLowerCase().compareTo(b2.ID.toLowerCase());
+    return this.lowerCaseID.compareTo(b2.lowerCaseID);
+  }
+
+  /** @return the lower case ID that this TextualFactoryBlock is sorted on */
+  String getLowerCaseID(){
+    return this.lowerCaseID;
   }
   /** @return the string representation of this TextualFactoryBlock */
   public String toString(){
@@ -171,6 +171,19 @@ public class BlockCanvas implements PageChangeListener, ISupportMemento  {
     }
     return allPageBlocks;
   }
+
+  /**
+   * @param block the block to search around
+   * @param distance how far, in pixels, beyond the bounds of block to look
+   * @return the RenderableBlocks on this canvas that lie within distance of
+   *          block, or an empty Iterable if no blocks exists
+   */
+  public Iterable<RenderableBlock> getBlocksNear(RenderableBlock block, int distance) {
+    if (thePage == null) {
+      return new ArrayList<RenderableBlock>();
+    }
+    return thePage.getBlocksNear(block, distance);
+  }
   /**
    * @effects Automatically arranges all the blocks within this.
    */
@@ -325,6 +338,24 @@ public class BlockCanvas implements PageChangeListener, ISupportMemento  {
     return page;
   }
 
+  /**
+   * @modifies this.thePage
+   * @effects Removes the only page, if any, from the BlockCanvas, leaving its
+   *          blocks on it.
+   * @return the removed page, or null if there was none
+   */
+  public Page detachPage() {
+    Page page = thePage;
+    if (page != null) {
+      thePage = null;
+      canvas.remove(page.getJComponent());
+      canvas.revalidate();
+      canvas.repaint();
+      PageChangeEventManager.notifyListeners();
+    }
+    return page;
+  }
+
   ////////////////////////////////
   //PageChangeListener Interface//
   ////////////////////////////////
@@ -366,15 +397,22 @@ public class BlockCanvas implements PageChangeListener, ISupportMemento  {
    */
   public String getSaveString(){
     StringBuilder saveString = new StringBuilder();
+    appendSaveString(saveString);
+    return saveString.toString();
+  }
 
+  /**
+   * Appends the XML describing all the blocks and the page within the
+   * BlockCanvas to saveString
+   */
+  public void appendSaveString(StringBuilder saveString){
     //get save string of the page
     if(thePage != null){  //TODO ria just do BLOCKS, CHECK OUT HOW SAVING WILL BE LIKE WITH REFACTORING
       saveString.append("<Pages>"); //should we include drawer-with-page flag?
-      saveString.append(thePage.getSaveString());
+      thePage.appendSaveString(saveString);
       saveString.append("\n");
       saveString.append("</Pages>");
     }
-    return saveString.toString();
   }
 
   /**
@@ -20,6 +20,8 @@ import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.event.ComponentEvent;
 import java.awt.event.ComponentListener;
+import java.awt.event.ContainerEvent;
+import java.awt.event.ContainerListener;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
@@ -111,6 +113,20 @@ public class FactoryManager implements WorkspaceWidget, ComponentListener, Works
   private TreeSet<FactoryCanvas> dynamicCanvases;
   /** The sorted set of dynamic drawers for component types */
   private TreeSet<FactoryCanvas> advancedCanvases;
+  /**
+   * Incremented whenever a drawer is added or removed or the blocks in a
+   * drawer change, so that indexes of the drawer blocks can tell when they
+   * are out of date.
+   */
+  private int drawerModCount = 0;
+  private final ContainerListener drawerContentsListener = new ContainerListener() {
+    public void componentAdded(ContainerEvent e) {
+      drawerModCount++;
+    }
+    public void componentRemoved(ContainerEvent e) {
+      drawerModCount++;
+    }
+  };
   private static Color ADVANCED_DRAWER_COLOR = new Color(252, 233, 157);
   private static Color BUILTIN_DRAWER_COLOR = new Color(248, 208, 143);
 
@@ -145,6 +161,7 @@ public class FactoryManager implements WorkspaceWidget, ComponentListener, Works
     final Comparator<FactoryCanvas> canvasComparator = new FactoryCanvasComparator();
     dynamicCanvases = new TreeSet<FactoryCanvas>(canvasComparator);
     advancedCanvases = new TreeSet<FactoryCanvas>(canvasComparator);
+    drawerModCount++;
     if (DEBUG) {
       System.out.println("Initializing FactoryManager canvases");
     }
@@ -161,6 +178,42 @@ public class FactoryManager implements WorkspaceWidget, ComponentListener, Works
     initCanvases();
   }
 
+  /** The drawers of a detached workspace */
+  private static class Drawers {
+    List<FactoryCanvas> staticCanvases;
+    TreeSet<FactoryCanvas> dynamicCanvases;
+    TreeSet<FactoryCanvas> advancedCanvases;
+  }
+
+  /**
+   * Takes away all drawers, with the blocks in them, leaving this as reset()
+   * would, and returns them for attachDrawers().
+   */
+  public Object detachDrawers(){
+    Drawers drawers = new Drawers();
+    drawers.staticCanvases = staticCanvases;
+    drawers.dynamicCanvases = dynamicCanvases;
+    drawers.advancedCanvases = advancedCanvases;
+    initCanvases();
+    return drawers;
+  }
+
+  /**
+   * Replaces all drawers with ones returned by detachDrawers().
+   */
+  public void attachDrawers(Object detached){
+    Drawers drawers = (Drawers) detached;
+    staticCanvases = drawers.staticCanvases;
+    dynamicCanvases = drawers.dynamicCanvases;
+    advancedCanvases = drawers.advancedCanvases;
+    drawerModCount++;
+    if (!WorkspaceControllerHolder.isHeadless()) {
+      navigator.setCanvas(staticCanvases, STATIC_NAME);
+      navigator.setCanvas(dynamicCanvases, BLOCKS_DYNAMIC_NAME);
+      navigator.setCanvas(advancedCanvases, COMPONENTS_DYNAMIC_NAME);
+    }
+  }
+
   /**
    * prints an error message in red without ending the run process.
    * For debuggin purposes
@@ -336,7 +389,9 @@ public class FactoryManager implements WorkspaceWidget, ComponentListener, Works
   public void addStaticDrawer(String name, int position, Color color) throws FactoryException {
     if (isValidDrawer(staticCanvases, name, position)) {
       FactoryCanvas canvas = new FactoryCanvas(name, color);
+      canvas.addContainerListener(drawerContentsListener);
       this.staticCanvases.add(position, canvas);
+      drawerModCount++;
       this.navigator.addCanvas(canvas, position, STATIC_NAME);
     } else {
       throw new FactoryException(
@@ -368,10 +423,12 @@ public class FactoryManager implements WorkspaceWidget, ComponentListener, Works
     if (isValidDrawer(canvasList, name, 0)){
       if (canvas == null) {
         canvas = new FactoryCanvas(name, color);
+        canvas.addContainerListener(drawerContentsListener);
       } else {
         canvas.setName(name);
       }
       canvasList.add(canvas);
+      drawerModCount++;
       this.navigator.addCanvas(canvas, drawerIndex(canvasList, canvas), dynamicDrawerName);
       return true;
     } else {
@@ -466,6 +523,7 @@ public class FactoryManager implements WorkspaceWidget, ComponentListener, Works
     }
     if(canvas != null){
       this.staticCanvases.remove(canvas);
+      drawerModCount++;
       if (!WorkspaceControllerHolder.isHeadless()) {
         this.navigator.setCanvas(this.staticCanvases, STATIC_NAME);
       }
@@ -484,6 +542,7 @@ public class FactoryManager implements WorkspaceWidget, ComponentListener, Works
     }
     if (canvas != null) {
       canvases.remove(canvas);
+      drawerModCount++;
       if (!WorkspaceControllerHolder.isHeadless()) {
         navigator.setCanvas(canvases, explorerName);
       }
@@ -500,6 +559,14 @@ public class FactoryManager implements WorkspaceWidget, ComponentListener, Works
     removeDynamicDrawerInternal(name, advancedCanvases, COMPONENTS_DYNAMIC_NAME);
   }
 
+  /**
+   * Returns a count that changes whenever a drawer is added or removed or
+   * the blocks in a drawer change.
+   */
+  public int getDrawerModCount() {
+    return drawerModCount;
+  }
+
   /////////////////
   //Block Methods//
   /////////////////
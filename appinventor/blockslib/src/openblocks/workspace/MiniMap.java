@@ -4,20 +4,32 @@
 // Released under the MIT License https://raw.github.com/mit-cml/app-inventor/master/mitlicense.txt
 package openblocks.workspace;
 
+import java.awt.AlphaComposite;
 import java.awt.Color;
 import java.awt.Component;
 import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.Graphics;
+import java.awt.Graphics2D;
 import java.awt.Point;
 import java.awt.Rectangle;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.ComponentEvent;
+import java.awt.event.ComponentListener;
+import java.awt.event.ContainerEvent;
+import java.awt.event.ContainerListener;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.awt.event.MouseMotionListener;
+import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import javax.swing.JComponent;
 import javax.swing.JPanel;
@@ -76,6 +88,15 @@ public class MiniMap extends JPanel implements WorkspaceWidget, MouseListener, M
    * Solution: set miniMap to opaque(false) BUT call super.paint() in this.paint()
    * Problem: page divider; renders an empty slit
    * Solution: set miniMap to opaque(false) BUT call super.paint() in this.paint()
+   *
+   * Rendering:
+   * The page and the blocks on it are drawn into pageImage, which paint()
+   * copies to the screen along with the dragged blocks and the viewport
+   * outline.  pageImage is divided into TILE_SIZE tiles; listeners on the
+   * page and its blocks mark the tiles a block was drawn on, and the tiles it
+   * now covers, dirty as it is added, removed, moved, resized, shown or
+   * hidden, and only the dirty tiles are redrawn.  Dragged blocks are not on
+   * the page, so dragging or scrolling doesn't redraw any tiles.
    */
   private static final long serialVersionUID = 328149080271L;
   /**the border width of the this mini map*/
@@ -98,6 +119,29 @@ public class MiniMap extends JPanel implements WorkspaceWidget, MouseListener, M
 
   private Color viewportOutlineColor = new Color(255, 150, 0);
 
+  /**the width and height of the tiles in which pageImage is redrawn*/
+  private static final int TILE_SIZE = 32;
+  /**the page and its blocks, rescaled*/
+  private BufferedImage pageImage;
+  /**the page whose blocks are being listened to*/
+  private Page listenedPage;
+  private final PageListener pageListener = new PageListener();
+  /**the state pageImage was drawn in; changing any of it redraws all of pageImage*/
+  private double drawnTransformX;
+  private double drawnTransformY;
+  private Rectangle drawnPageRect;
+  private Color drawnPageColor;
+  private String drawnPageName;
+  private boolean drawnPageIcon;
+  /*
+   * The dirty tiles and where each component was last drawn, guarded by
+   * dirtyLock.  Blocks can report changes off the Swing thread.
+   */
+  private final Object dirtyLock = new Object();
+  private boolean allDirty = true;
+  private final Set<Point> dirtyTiles = new HashSet<Point>();
+  private final Map<Component, Rectangle> drawnBounds = new HashMap<Component, Rectangle>();
+
 
   /**
    * @effect  constructs a MiniMap, M, such that
@@ -185,32 +229,7 @@ public class MiniMap extends JPanel implements WorkspaceWidget, MouseListener, M
     g.translate(5,5);
     Page page = this.blockCanvas.getTheOnlyPage();
     if (page != null) {
-      Color pageColor = page.getPageColor();
-      g.setColor(new Color(pageColor.getRed(), pageColor.getGreen(), pageColor.getBlue(), 200));
-      Rectangle pageRect = rescaleRect(page.getJComponent().getBounds());
-      g.fillRect(     pageRect.x,pageRect.y, pageRect.width, pageRect.height );
-      g.setColor(Color.white);
-      g.clipRect(pageRect.x,pageRect.y, pageRect.width, pageRect.height);
-      g.drawString(page.getPageName(), pageRect.x+1, pageRect.height-3);
-      if(page.getIcon()!=null && expand){
-        g.drawImage(page.getIcon(), pageRect.x+1,pageRect.height-28,15,15,null);
-      }
-      g.setClip(null);
-      for(Component component : page.getJComponent().getComponents()){
-        //re-render this.blocks and this.comments
-        if(component instanceof RenderableBlock && component != null && component.isVisible()){
-          if(((RenderableBlock)component).isSearchResult()){
-            g.setColor(Color.yellow);
-          }else{
-            g.setColor(((RenderableBlock)component).getColor());
-          }
-          drawBoundingBox(g, component);
-        }else if(component instanceof Comment && component.isVisible()){
-          g.setColor(Color.yellow);
-          drawBoundingBox(g, component);
-        }
-      }
-
+      g.drawImage(updatePageImage(page), 0, 0, null);
     }
     for(Component component : Workspace.getInstance().getComponentsInLayer(Workspace.DRAGGED_BLOCK_LAYER)){
       if(component instanceof RenderableBlock && component != null && component.isVisible()) {
@@ -229,18 +248,252 @@ public class MiniMap extends JPanel implements WorkspaceWidget, MouseListener, M
         rescaleY(blockCanvas.getHeight()));
   }
 
+  /**
+   * @effect Brings pageImage up to date with page by redrawing its dirty tiles,
+   *     or all of it if the page or the scale changed
+   * @return pageImage
+   */
+  private BufferedImage updatePageImage(Page page){
+    if (page != listenedPage) {
+      listenTo(page);
+    }
+    Rectangle pageRect = rescaleRect(page.getJComponent().getBounds());
+    Color pageColor = page.getPageColor();
+    String pageName = page.getPageName();
+    boolean pageIcon = expand && page.getIcon() != null;
+    if (pageImage == null || pageImage.getWidth() != MAPWIDTH + 1
+        || pageImage.getHeight() != MAPHEIGHT + 1) {
+      pageImage = new BufferedImage(MAPWIDTH + 1, MAPHEIGHT + 1, BufferedImage.TYPE_INT_ARGB);
+      markAllDirty();
+    }
+    if (transformX != drawnTransformX || transformY != drawnTransformY
+        || !pageRect.equals(drawnPageRect) || !pageColor.equals(drawnPageColor)
+        || !pageName.equals(drawnPageName) || pageIcon != drawnPageIcon) {
+      drawnTransformX = transformX;
+      drawnTransformY = transformY;
+      drawnPageRect = pageRect;
+      drawnPageColor = pageColor;
+      drawnPageName = pageName;
+      drawnPageIcon = pageIcon;
+      markAllDirty();
+    }
+
+    List<Rectangle> regions = new ArrayList<Rectangle>();
+    synchronized (dirtyLock) {
+      if (allDirty) {
+        regions.add(new Rectangle(0, 0, pageImage.getWidth(), pageImage.getHeight()));
+        drawnBounds.clear();
+      } else {
+        for (Point tile : dirtyTiles) {
+          regions.add(new Rectangle(tile.x * TILE_SIZE, tile.y * TILE_SIZE, TILE_SIZE, TILE_SIZE));
+        }
+      }
+      allDirty = false;
+      dirtyTiles.clear();
+    }
+    if (regions.isEmpty()) {
+      return pageImage;
+    }
+
+    List<Component> components = new ArrayList<Component>();
+    List<Color> colors = new ArrayList<Color>();
+    List<Rectangle> rects = new ArrayList<Rectangle>();
+    for(Component component : page.getJComponent().getComponents()){
+      if(component instanceof RenderableBlock && component.isVisible()){
+        if(((RenderableBlock)component).isSearchResult()){
+          colors.add(Color.yellow);
+        }else{
+          colors.add(((RenderableBlock)component).getColor());
+        }
+      }else if(component instanceof Comment && component.isVisible()){
+        colors.add(Color.yellow);
+      }else{
+        continue;
+      }
+      components.add(component);
+      rects.add(rescaleBounds(component));
+    }
+    boolean[] drawn = new boolean[components.size()];
+
+    Graphics2D g = pageImage.createGraphics();
+    g.setFont(getFont());
+    Color pageFill = new Color(pageColor.getRed(), pageColor.getGreen(), pageColor.getBlue(), 200);
+    for (Rectangle region : regions) {
+      g.setClip(region);
+      g.setComposite(AlphaComposite.Clear);
+      g.fill(region);
+      g.setComposite(AlphaComposite.SrcOver);
+      g.setColor(pageFill);
+      g.fillRect(     pageRect.x,pageRect.y, pageRect.width, pageRect.height );
+      g.setColor(Color.white);
+      g.clipRect(pageRect.x,pageRect.y, pageRect.width, pageRect.height);
+      g.drawString(pageName, pageRect.x+1, pageRect.height-3);
+      if(pageIcon){
+        g.drawImage(page.getIcon(), pageRect.x+1,pageRect.height-28,15,15,null);
+      }
+      g.setClip(region);
+      //re-render the blocks and comments that overlap this region
+      for (int i = 0; i < components.size(); i++) {
+        Rectangle blockRect = rects.get(i);
+        if (region.intersects(blockRect.x, blockRect.y, blockRect.width + 1, blockRect.height + 1)) {
+          g.setColor(colors.get(i));
+          drawBoundingBox(g, blockRect);
+          drawn[i] = true;
+        }
+      }
+    }
+    g.dispose();
+
+    synchronized (dirtyLock) {
+      for (int i = 0; i < components.size(); i++) {
+        if (!drawn[i]) {
+          continue;
+        }
+        Rectangle blockRect = rects.get(i);
+        Rectangle previous = drawnBounds.put(components.get(i), blockRect);
+        if (previous != null && !previous.equals(blockRect)) {
+          // It moved, and the listener hasn't heard yet.  Clear the rest of
+          // its old box and draw the rest of its new one next time.
+          markDirty(previous);
+          markDirty(blockRect);
+          repaint();
+        }
+      }
+    }
+    return pageImage;
+  }
+
+  /**
+   * @modifies this.listenedPage
+   * @effect Moves this.pageListener from this.listenedPage and its
+   *     components to page and its components
+   */
+  private void listenTo(Page page){
+    if (listenedPage != null) {
+      listenedPage.getJComponent().removeContainerListener(pageListener);
+      for (Component component : listenedPage.getJComponent().getComponents()) {
+        component.removeComponentListener(pageListener);
+      }
+    }
+    listenedPage = page;
+    page.getJComponent().addContainerListener(pageListener);
+    for (Component component : page.getJComponent().getComponents()) {
+      component.addComponentListener(pageListener);
+    }
+    markAllDirty();
+  }
+
+  private void markAllDirty(){
+    synchronized (dirtyLock) {
+      allDirty = true;
+    }
+  }
+
+  /**
+   * @effect Marks the tiles overlapping rect, which is in MiniMap
+   *     coordinates, dirty.  Callers must hold dirtyLock.
+   */
+  private void markDirty(Rectangle rect){
+    // Bounding boxes are outlined one pixel beyond their width and height.
+    int maxX = Math.min(rect.x + rect.width + 1, MAPWIDTH + 1);
+    int maxY = Math.min(rect.y + rect.height + 1, MAPHEIGHT + 1);
+    for (int x = Math.max(rect.x, 0) / TILE_SIZE; x * TILE_SIZE <= maxX; x++) {
+      for (int y = Math.max(rect.y, 0) / TILE_SIZE; y * TILE_SIZE <= maxY; y++) {
+        dirtyTiles.add(new Point(x, y));
+      }
+    }
+  }
+
+  /**
+   * @effect Redraws component where it was last drawn, and where it is now
+   *     if its bounds can be rescaled, on the next paint.
+   */
+  private void componentChanged(Component component, boolean rescaleCurrentBounds){
+    synchronized (dirtyLock) {
+      Rectangle drawn = drawnBounds.remove(component);
+      if (drawn != null) {
+        markDirty(drawn);
+      }
+      if (rescaleCurrentBounds) {
+        if (blockCanvas == null || component.getParent() == null) {
+          allDirty = true;
+        } else {
+          markDirty(rescaleBounds(component));
+        }
+      }
+    }
+    repaint();
+  }
+
+  /**
+   * Redraws block on the next paint.  Call this when the block changes in a
+   * way that doesn't move or resize it, such as its color.
+   * May be called from any thread.
+   */
+  public void blockChanged(RenderableBlock block){
+    synchronized (dirtyLock) {
+      Rectangle drawn = drawnBounds.get(block);
+      if (drawn == null) {
+        return;
+      }
+      markDirty(drawn);
+    }
+    repaint();
+  }
+
+  /**
+   * Tracks the components of this.listenedPage, marking the tiles they
+   * cover dirty as they change.
+   */
+  private class PageListener implements ContainerListener, ComponentListener {
+    public void componentAdded(ContainerEvent e){
+      e.getChild().addComponentListener(this);
+      componentChanged(e.getChild(), true);
+    }
+    public void componentRemoved(ContainerEvent e){
+      e.getChild().removeComponentListener(this);
+      componentChanged(e.getChild(), false);
+    }
+    public void componentMoved(ComponentEvent e){
+      componentChanged(e.getComponent(), true);
+    }
+    public void componentResized(ComponentEvent e){
+      componentChanged(e.getComponent(), true);
+    }
+    public void componentShown(ComponentEvent e){
+      componentChanged(e.getComponent(), true);
+    }
+    public void componentHidden(ComponentEvent e){
+      componentChanged(e.getComponent(), false);
+    }
+  }
+
   /**
    * @effect Renders a JComponent by drawing a rectangle around
    *     its bounding box (rescaled to fit MiniMap) using
    *     the given graphics context
    */
   private void drawBoundingBox(Graphics g, Component block){
-    Rectangle blockRect = block.getBounds();
+    drawBoundingBox(g, rescaleBounds(block));
+  }
+
+  /**
+   * @return the bounds of component in the block canvas, rescaled
+   */
+  private Rectangle rescaleBounds(Component component){
+    Rectangle blockRect = component.getBounds();
     blockRect.setLocation(SwingUtilities.convertPoint(
-        block.getParent(),
+        component.getParent(),
         blockRect.getLocation(),
         getCanvas()));
-    blockRect = rescaleRect(blockRect);
+    return rescaleRect(blockRect);
+  }
+
+  /**
+   * @effect Fills blockRect, which is already rescaled, with the current
+   *     color and outlines it in white
+   */
+  private void drawBoundingBox(Graphics g, Rectangle blockRect){
     g.fillRect(     (blockRect.x),
         (blockRect.y),
         (blockRect.width),
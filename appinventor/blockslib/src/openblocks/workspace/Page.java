@@ -14,15 +14,19 @@ import java.awt.Graphics2D;
 import java.awt.Image;
 import java.awt.Point;
 import java.awt.Rectangle;
+import java.awt.event.ContainerEvent;
+import java.awt.event.ContainerListener;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeSet;
 
 import javax.swing.JComponent;
@@ -127,6 +131,8 @@ public class Page  implements WorkspaceWidget, SearchableContainer, ISupportMeme
   private int minimumPixelHeight = 0;
   /** The user-time unique id of this page. Once set, cannot be changed. */
   private String pageId = null;
+  /** Spatial index of the blocks on this page, used to find link candidates */
+  private final BlockGridIndex blockIndex = new BlockGridIndex();
   //////////////////////////////
   //Constructor/ Destructor     //
   //////////////////////////////
@@ -169,6 +175,18 @@ public class Page  implements WorkspaceWidget, SearchableContainer, ISupportMeme
       this.pageDrawer = name;
     }
     this.pageJComponent.setOpaque(true);
+    this.pageJComponent.addContainerListener(new ContainerListener() {
+      public void componentAdded(ContainerEvent e) {
+        if (e.getChild() instanceof RenderableBlock) {
+          blockIndex.update((RenderableBlock) e.getChild());
+        }
+      }
+      public void componentRemoved(ContainerEvent e) {
+        if (e.getChild() instanceof RenderableBlock) {
+          blockIndex.remove((RenderableBlock) e.getChild());
+        }
+      }
+    });
   }
 
   /**
@@ -256,6 +274,34 @@ public class Page  implements WorkspaceWidget, SearchableContainer, ISupportMeme
     return blocks;
   }
 
+  /**
+   * @param block the block to search around; may be on this page or being
+   *              dragged over it
+   * @param distance how far, in pixels, beyond the bounds of block to look
+   * @return the RenderableBlocks on this page whose bounds come within
+   *         distance of the bounds of block.  Blocks that lie slightly
+   *         further away may also be returned.
+   */
+  public Collection<RenderableBlock> getBlocksNear(RenderableBlock block, int distance){
+    Rectangle area = block.getBounds();
+    if (block.getParent() != null && block.getParent() != this.pageJComponent) {
+      area = SwingUtilities.convertRectangle(block.getParent(), area, this.pageJComponent);
+    }
+    area.grow(distance, distance);
+    return blockIndex.getBlocksIn(area);
+  }
+
+  /**
+   * Refreshes this page's spatial index after block has been moved or
+   * resized.  Does nothing if block does not currently sit on this page.
+   * @param block the RenderableBlock whose bounds changed
+   */
+  public void blockMoved(RenderableBlock block){
+    if (block.getParent() == this.pageJComponent) {
+      blockIndex.update(block);
+    }
+  }
+
   /**
    * @return a collection of top level blocks within this page (blocks with no
    *                    parents that and are the first block of each stack) or an empty
@@ -837,8 +883,16 @@ public class Page  implements WorkspaceWidget, SearchableContainer, ISupportMeme
   }
 
   public String getSaveString(){
-    StringBuffer buf = new StringBuffer();
+    StringBuilder buf = new StringBuilder();
+    appendSaveString(buf);
+    return buf.toString();
+  }
 
+  /**
+   * Appends the save string of this page and all of its blocks to buf.
+   * @param buf the buffer to write to
+   */
+  public void appendSaveString(StringBuilder buf){
     buf.append("<Page ");
     appendAttribute("page-name", this.getPageName(), buf);
     appendAttribute("page-color", this.getPageColor().getRed() + " " +
@@ -856,15 +910,13 @@ public class Page  implements WorkspaceWidget, SearchableContainer, ISupportMeme
     if(blocks.size()>0){
       buf.append("<PageBlocks>\n");
       for(RenderableBlock rb : blocks){
-        buf.append(rb.getSaveString());
+        rb.appendSaveString(buf);
       }
       buf.append("</PageBlocks>\n");
     }
     buf.append("</Page>\n");
-
-    return buf.toString();
   }
-  private void appendAttribute(String att, String value, StringBuffer buf){
+  private void appendAttribute(String att, String value, StringBuilder buf){
     buf.append(att);
     buf.append(EQ_OPEN_QUOTE);
     buf.append(Escapers.escapeForXml(value));
@@ -1036,6 +1088,108 @@ class PageJComponent extends JLayeredPane  implements RBParent {
 
 }
 
+/**
+ * A BlockGridIndex files the blocks of a page into fixed size grid cells by
+ * their bounds, so that the blocks around a point can be found without
+ * walking every block on the page.
+ */
+class BlockGridIndex {
+  /** The width and height of a grid cell, in pixels */
+  private static final int CELL_SIZE = 128;
+  /** The blocks overlapping each cell, keyed by packed cell coordinates */
+  private final Map<Long, List<RenderableBlock>> cells = new HashMap<Long, List<RenderableBlock>>();
+  /** The range of cells each indexed block was last filed under */
+  private final Map<RenderableBlock, Rectangle> cellRanges = new HashMap<RenderableBlock, Rectangle>();
+
+  /**
+   * Files block under the cells its current bounds overlap, adding it to
+   * this index if it is not already there.
+   */
+  void update(RenderableBlock block) {
+    Rectangle range = cellRange(block.getBounds());
+    Rectangle oldRange = cellRanges.get(block);
+    if (range.equals(oldRange)) {
+      return;
+    }
+    if (oldRange != null) {
+      removeFromCells(block, oldRange);
+    }
+    for (int x = range.x; x < range.x + range.width; x++) {
+      for (int y = range.y; y < range.y + range.height; y++) {
+        Long key = cellKey(x, y);
+        List<RenderableBlock> cell = cells.get(key);
+        if (cell == null) {
+          cell = new ArrayList<RenderableBlock>(4);
+          cells.put(key, cell);
+        }
+        cell.add(block);
+      }
+    }
+    cellRanges.put(block, range);
+  }
+
+  /**
+   * Removes block from this index.
+   */
+  void remove(RenderableBlock block) {
+    Rectangle oldRange = cellRanges.remove(block);
+    if (oldRange != null) {
+      removeFromCells(block, oldRange);
+    }
+  }
+
+  /**
+   * @return the blocks filed under any cell that area overlaps
+   */
+  Collection<RenderableBlock> getBlocksIn(Rectangle area) {
+    Rectangle range = cellRange(area);
+    Set<RenderableBlock> found = new LinkedHashSet<RenderableBlock>();
+    for (int x = range.x; x < range.x + range.width; x++) {
+      for (int y = range.y; y < range.y + range.height; y++) {
+        List<RenderableBlock> cell = cells.get(cellKey(x, y));
+        if (cell != null) {
+          found.addAll(cell);
+        }
+      }
+    }
+    return found;
+  }
+
+  private void removeFromCells(RenderableBlock block, Rectangle range) {
+    for (int x = range.x; x < range.x + range.width; x++) {
+      for (int y = range.y; y < range.y + range.height; y++) {
+        Long key = cellKey(x, y);
+        List<RenderableBlock> cell = cells.get(key);
+        if (cell != null) {
+          cell.remove(block);
+          if (cell.isEmpty()) {
+            cells.remove(key);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * @return the range of cells, in cell coordinates, that bounds overlaps
+   */
+  private static Rectangle cellRange(Rectangle bounds) {
+    int minX = cellIndex(bounds.x);
+    int minY = cellIndex(bounds.y);
+    int maxX = cellIndex(bounds.x + bounds.width);
+    int maxY = cellIndex(bounds.y + bounds.height);
+    return new Rectangle(minX, minY, maxX - minX + 1, maxY - minY + 1);
+  }
+
+  private static int cellIndex(int pixel) {
+    return (int) Math.floor((double) pixel / CELL_SIZE);
+  }
+
+  private static Long cellKey(int x, int y) {
+    return Long.valueOf(((long) x << 32) | (y & 0xffffffffL));
+  }
+}
+
 /**
  * A BlockStackSortUtil is a utilities class that serves to order
  * blocks from closest to furthest blocks (relative to the x=0 axis).
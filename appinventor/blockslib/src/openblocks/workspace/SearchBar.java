@@ -6,7 +6,6 @@ package openblocks.workspace;
 
 
 import java.awt.Color;
-import java.awt.Component;
 import java.awt.Font;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
@@ -22,6 +21,7 @@ import java.util.Set;
 
 import javax.swing.JComponent;
 import javax.swing.JTextField;
+import javax.swing.SwingUtilities;
 import javax.swing.Timer;
 import javax.swing.event.DocumentEvent;
 import javax.swing.event.DocumentListener;
@@ -31,9 +31,13 @@ import openblocks.codeblockutil.CQueryField;
 /**
  * Contributes a search bar component to the CodeBlocks GUI, which allows the user to find 
  * Searchables such as blocks in the drawers and workspace with a query by name.
+ *
+ * Queries are answered from a SearchIndex of the containers' keywords.  Workspace events
+ * mark the containers they touch stale, and the current query is rerun against the
+ * updated index, rather than rescanning every container periodically.
  */
 @Deprecated
-public class SearchBar {
+public class SearchBar implements WorkspaceListener {
 	private final CQueryField searchPanel;
 	private final JTextField searchBar;
     private final String defaultText;
@@ -41,13 +45,19 @@ public class SearchBar {
     private Set<SearchableContainer> containerSet = new HashSet<SearchableContainer>();
     private Map<SearchableContainer, Set<SearchableElement>> searchResults = new HashMap<SearchableContainer, Set<SearchableElement>>();
     
+    private final SearchIndex searchIndex = new SearchIndex();
+    // Containers whose elements changed since the last search, guarded by this.
+    // Workspace events can arrive off the Swing thread, so they are only recorded
+    // here and applied to the index by the next search.
+    private final Set<SearchableContainer> staleContainers = new HashSet<SearchableContainer>();
+    private boolean allContainersStale = false;
+    private int drawerModCount = -1;
+
+    private final Workspace workspace;
     private Timer searchUpdater;
     private static final int SEARCH_UPDATER_DELAY = 5000;
-    private Timer searchThrottle;
+    private final Timer searchThrottle;
     private static final int SEARCH_THROTTLE_DELAY = 250;
-
-    private enum SearchRange {CHECK_ALL, REMOVE_FROM_FOUND, ADD_FROM_NOT_FOUND}
-    private SearchRange searchRange;
     
     /**
      * Contructs a new search bar.
@@ -55,11 +65,12 @@ public class SearchBar {
      * such as "Search blocks"
      * @param tooltip the text to show as a tooltip for the search bar when the user hovers the mouse 
      * over the search bar.
-     * @param defaultComponent the component for which focus should be requested if the user 
-     * presses the Escape key while using the search bar.
+     * @param workspace the workspace whose events refresh the search results, and which
+     * requests focus if the user presses the Escape key while using the search bar.
      */
-    public SearchBar(String defaultText, String tooltip, final Component defaultComponent) {
+    public SearchBar(String defaultText, String tooltip, final Workspace workspace) {
     	    this.defaultText = defaultText;
+    	    this.workspace = workspace;
     	    this.searchPanel = new CQueryField();
     	    this.searchBar = this.searchPanel.getQueryField();
     	    searchBar.setToolTipText(tooltip);
@@ -68,6 +79,9 @@ public class SearchBar {
         resetSearchBar();
         searchBar.addFocusListener(new FocusListener() {
             public void focusGained(FocusEvent e) {
+                // Labels can change without workspace events, so start each
+                // search session from a fresh index.
+                markAllContainersStale();
                 readySearchBar();
             }
             
@@ -80,7 +94,7 @@ public class SearchBar {
             public void keyPressed(KeyEvent e) {
                 if (e.getKeyCode() == KeyEvent.VK_ESCAPE) {
                     searchBar.setText("");
-                    defaultComponent.requestFocusInWindow();
+                    workspace.requestFocusInWindow();
                 }
             }
         });
@@ -91,52 +105,38 @@ public class SearchBar {
             }
             
             public void insertUpdate(DocumentEvent e) {
-                //System.out.println("Called insertUpdate, offset = " + e.getOffset() + ", query length = " + searchBar.getText().length());
                 if (searchBar.getText().equals(SearchBar.this.defaultText))
                     return;
-                // If the search term changed only at the beginning or end, then only
-                // the blocks found already may change.  Remove unmatched blocks from
-                // foundBlocks.
-                if (e.getOffset() == 0 || e.getOffset() + e.getLength() == searchBar.getText().length()) {
-                	performSearch(SearchRange.REMOVE_FROM_FOUND);
-                } else {
-                	// If the search term changed in the middle, then the blocks found and
-                	// the blocks yet to be found may have changed.  Recheck all blocks.
-                	performSearch(SearchRange.CHECK_ALL);
-                }
+                performSearch();
             }
             
             public void removeUpdate(DocumentEvent e) {
-                //System.out.println("Called removeUpdate, offset = " + e.getOffset() + ", query length = " + searchBar.getText().length());
-                if (searchBar.getText().equals("")) {
-                    performSearch(SearchRange.CHECK_ALL);
-                } else if (e.getOffset() == 0 || e.getOffset() == searchBar.getText().length()) {
-                    // If the search term changed only at the beginning or end, then
-                    // the blocks found already do not change.  Check for additional blocks
-                    // from the Worspace.
-                    performSearch(SearchRange.ADD_FROM_NOT_FOUND);
-                } else {
-                    // If the search term changed in the middle, then the blocks found may have
-                    // changed.  Recheck all blocks.
-                    performSearch(SearchRange.CHECK_ALL);
-                }
+                performSearch();
             }
         });
         
-        // Repeat search periodically to refresh results in case elements change,
-        // such as when a new block is dragged onto the Workspace and should be included in the results.
+        searchThrottle = new Timer(SEARCH_THROTTLE_DELAY, new ActionListener() {
+            public void actionPerformed(ActionEvent e) {
+                performSearchTimerHandler();
+            }
+        });
+        searchThrottle.setRepeats(false);
+        
+        // Changes to the drawers' contents don't always fire workspace events, so
+        // check periodically whether they changed and refresh the results if so.
         searchUpdater = new Timer(SEARCH_UPDATER_DELAY, new ActionListener() {
             public void actionPerformed(ActionEvent e) {
-            	// Skip the update if the throttle is about to perform a search anyway.
-            	if (searchThrottle != null && !searchThrottle.isRunning()) {
-            		searchRange = SearchRange.CHECK_ALL;
-            		performSearchTimerHandler();
-            	}
+                int modCount = workspace.getFactoryManager().getDrawerModCount();
+                if (modCount != drawerModCount) {
+                    drawerModCount = modCount;
+                    markAllContainersStale();
+                }
             }
         });
         searchUpdater.start();
+        workspace.addWorkspaceListener(this);
     }
-    
+
 	/**
 	 * Returns the Swing component representation of the search bar.
 	 * @return the Swing the component representation of the search bar.
@@ -188,6 +188,63 @@ public class SearchBar {
         synchronized(this) {
             searchResults.clear();
             containerSet.clear();
+            allContainersStale = true;
+        }
+    }
+
+    /**
+     * Marks the containers affected by event stale and, if there is a query,
+     * reruns it once the index has been updated.  Events can arrive off the
+     * Swing thread, so the query is rerun from there.
+     */
+    public void workspaceEventOccurred(WorkspaceEvent event) {
+        switch (event.getEventType()) {
+            case WorkspaceEvent.BLOCK_MOVED:
+            case WorkspaceEvent.BLOCKS_CONNECTED:
+            case WorkspaceEvent.BLOCKS_DISCONNECTED:
+            case WorkspaceEvent.BLOCK_NOTE_ADDED:
+            case WorkspaceEvent.BLOCK_NOTE_REMOVED:
+            case WorkspaceEvent.BLOCK_NOTE_MOVED:
+            case WorkspaceEvent.BLOCK_NOTE_RESIZED:
+            case WorkspaceEvent.BLOCK_NOTE_VISIBILITY_CHANGE:
+            case WorkspaceEvent.BLOCK_NOTE_CHANGED:
+            case WorkspaceEvent.BLOCK_COLLAPSE_CHANGE:
+            case WorkspaceEvent.BLOCK_REPORT_CHANGE:
+            case WorkspaceEvent.BLOCK_DO_IT:
+            case WorkspaceEvent.BLOCK_DOUBLE_CLICKED:
+                // These don't change which elements a container has or their keywords.
+                return;
+            case WorkspaceEvent.BLOCK_ADDED:
+            case WorkspaceEvent.BLOCK_REMOVED:
+                if (event.getSourceWidget() instanceof SearchableContainer) {
+                    synchronized(this) {
+                        staleContainers.add((SearchableContainer) event.getSourceWidget());
+                    }
+                    break;
+                }
+                markAllContainersStale();
+                break;
+            default:
+                markAllContainersStale();
+                break;
+        }
+        SwingUtilities.invokeLater(new Runnable() {
+            public void run() {
+                if (hasQuery()) {
+                    performSearch();
+                }
+            }
+        });
+    }
+
+    private boolean hasQuery() {
+        String query = searchBar.getText();
+        return !query.equals("") && !query.equals(defaultText);
+    }
+
+    private void markAllContainersStale() {
+        synchronized(this) {
+            allContainersStale = true;
         }
     }
 	
@@ -236,26 +293,11 @@ public class SearchBar {
     }
 
     /**
-     * Perform a new search for the specified range based on updates to the search bar.
-     * @param range verifies the optimization for search depending on whether the search space 
-     * has become bigger or smaller since the last search.
+     * Perform a new search for the current query once the search bar has been
+     * left alone for SEARCH_THROTTLE_DELAY.
      */
-    private void performSearch(final SearchRange range) {
-        // If new requests to search come in during the delay, reset the timer and update the range.
-        // If the range changed from the previous request since starting the timer,
-        // automatically do a CHECK_ALL.
-        if (searchRange == null)
-            searchRange = range;
-        if (!searchRange.equals(range))
-            searchRange = SearchRange.CHECK_ALL;
-        if (searchThrottle == null) {
-            searchThrottle = new Timer(SEARCH_THROTTLE_DELAY, new ActionListener() {
-                public void actionPerformed(ActionEvent e) {
-                    performSearchTimerHandler();
-                }
-            });
-            searchThrottle.setRepeats(false);
-        }
+    private void performSearch() {
+        // If new requests to search come in during the delay, reset the timer.
         if (searchThrottle.isRunning())
             searchThrottle.restart();
         else
@@ -263,55 +305,52 @@ public class SearchBar {
     }
     
     private void performSearchTimerHandler() {
-        //System.out.println("performing search... range = " + searchRange);
-        if (searchBar.getText().equals("")) {
+        // Called by a javax.swing.Timer to throttle search by about a quarter second.
+        if (!hasQuery()) {
             clearSearchResults();
             return;
         }
-        // Called by a javax.swing.Timer to throttle search by about a quarter second.
-        SearchRange range = searchRange;
-        searchRange = null;
+        String query = searchBar.getText();
     	Set<SearchableContainer> containers;
     	synchronized(this) {
-    		// Safely grab a copy of the current set of containers to search.
+    		// Safely grab a copy of the current set of containers to search, and of
+    		// the containers that changed since the last search.
     		containers = new HashSet<SearchableContainer>(containerSet);
+    		if (allContainersStale) {
+    			searchIndex.invalidateAll();
+    		} else {
+    			for (SearchableContainer container : staleContainers) {
+    				searchIndex.invalidate(container);
+    			}
+    		}
+    		allContainersStale = false;
+    		staleContainers.clear();
     	}
-        if (range == SearchRange.ADD_FROM_NOT_FOUND || range == SearchRange.CHECK_ALL) {
-        	for (SearchableContainer container : containers) {
-        		// Update the search results for each container for this query
-        		Set<SearchableElement> foundElements = searchResults.get(container);
-        		if (foundElements == null) {
-        			foundElements = new HashSet<SearchableElement>();
-        			searchResults.put(container, foundElements);
-        		}
-        		for (SearchableElement element : container.getSearchableElements()) {
-        			if (!foundElements.contains(element) && element.getKeyword().toUpperCase().contains(searchBar.getText().toUpperCase())) {
-        				foundElements.add(element);
-        				element.updateInSearchResults(true);
-        			}
-        		}
-        		if (!foundElements.isEmpty()) {
-        			container.updateContainsSearchResults(true);
-        		}
-        	}
+        Map<SearchableContainer, Set<SearchableElement>> newResults =
+            searchIndex.search(containers, query);
+        // Only tell the elements and containers whose state changed.
+        for (Map.Entry<SearchableContainer, Set<SearchableElement>> found : searchResults.entrySet()) {
+            Set<SearchableElement> stillFound = newResults.get(found.getKey());
+            for (SearchableElement element : found.getValue()) {
+                if (stillFound == null || !stillFound.contains(element)) {
+                    element.updateInSearchResults(false);
+                }
+            }
+            if (stillFound == null) {
+                found.getKey().updateContainsSearchResults(false);
+            }
         }
-        if (range == SearchRange.REMOVE_FROM_FOUND || range == SearchRange.CHECK_ALL) {
-            for (SearchableContainer container : containers) {
-            	Set<SearchableElement> foundElements = searchResults.get(container);
-            	if (foundElements != null) {
-        			Set<SearchableElement> elementsToRemove = new HashSet<SearchableElement>();
-            		for (SearchableElement element : foundElements) {
-            			if (!element.getKeyword().toUpperCase().contains(searchBar.getText().toUpperCase())) {
-            				elementsToRemove.add(element);
-            				element.updateInSearchResults(false);
-            			}
-            		}
-            		foundElements.removeAll(elementsToRemove);
-            		if (foundElements.isEmpty()) {
-            			container.updateContainsSearchResults(false);
-            		}
-            	}
+        for (Map.Entry<SearchableContainer, Set<SearchableElement>> found : newResults.entrySet()) {
+            Set<SearchableElement> wasFound = searchResults.get(found.getKey());
+            for (SearchableElement element : found.getValue()) {
+                if (wasFound == null || !wasFound.contains(element)) {
+                    element.updateInSearchResults(true);
+                }
+            }
+            if (wasFound == null) {
+                found.getKey().updateContainsSearchResults(true);
             }
         }
+        searchResults = newResults;
     }
 }
@@ -0,0 +1,143 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2009-2011 Google, All Rights reserved
+// Copyright 2011-2012 MIT, All rights reserved
+// Released under the MIT License https://raw.github.com/mit-cml/app-inventor/master/mitlicense.txt
+
+package openblocks.workspace;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An inverted index of the keywords of the elements in a set of
+ * SearchableContainers, used by the SearchBar so that each query doesn't have
+ * to visit and uppercase every element.
+ *
+ * Each container's elements are indexed by the trigrams (three character
+ * substrings) of their uppercased keywords. A query of three or more
+ * characters only looks at the elements listed under its rarest trigram.
+ * A container is reindexed on the next query after it has been marked stale.
+ *
+ * Not thread safe; the SearchBar only uses it on the Swing thread.
+ */
+class SearchIndex {
+  private static final int GRAM_LENGTH = 3;
+
+  private static class Entry {
+    final SearchableElement element;
+    final String upperKeyword;
+
+    Entry(SearchableElement element) {
+      this.element = element;
+      String keyword = element.getKeyword();
+      upperKeyword = (keyword == null) ? "" : keyword.toUpperCase();
+    }
+  }
+
+  /*
+   * The index of one container.
+   */
+  private static class ContainerIndex {
+    final List<Entry> entries = new ArrayList<Entry>();
+    final Map<String, List<Entry>> entriesByGram = new HashMap<String, List<Entry>>();
+
+    ContainerIndex(SearchableContainer container) {
+      Set<String> grams = new HashSet<String>();
+      for (SearchableElement element : container.getSearchableElements()) {
+        if (element == null) {
+          continue;
+        }
+        Entry entry = new Entry(element);
+        entries.add(entry);
+        grams.clear();
+        for (int i = 0; i + GRAM_LENGTH <= entry.upperKeyword.length(); i++) {
+          grams.add(entry.upperKeyword.substring(i, i + GRAM_LENGTH));
+        }
+        for (String gram : grams) {
+          List<Entry> list = entriesByGram.get(gram);
+          if (list == null) {
+            list = new ArrayList<Entry>();
+            entriesByGram.put(gram, list);
+          }
+          list.add(entry);
+        }
+      }
+    }
+
+    List<Entry> getCandidates(String upperQuery) {
+      if (upperQuery.length() < GRAM_LENGTH) {
+        return entries;
+      }
+      List<Entry> candidates = null;
+      for (int i = 0; i + GRAM_LENGTH <= upperQuery.length(); i++) {
+        List<Entry> list = entriesByGram.get(upperQuery.substring(i, i + GRAM_LENGTH));
+        if (list == null) {
+          return Collections.emptyList();
+        }
+        if (candidates == null || list.size() < candidates.size()) {
+          candidates = list;
+        }
+      }
+      return candidates;
+    }
+  }
+
+  private final Map<SearchableContainer, ContainerIndex> indexes =
+      new HashMap<SearchableContainer, ContainerIndex>();
+
+  /**
+   * Marks container stale, so that it is reindexed on the next query.
+   */
+  void invalidate(SearchableContainer container) {
+    indexes.remove(container);
+  }
+
+  /**
+   * Marks every container stale.
+   */
+  void invalidateAll() {
+    indexes.clear();
+  }
+
+  /**
+   * Returns the elements of each of containers whose keyword contains query,
+   * ignoring case. Containers without matching elements are left out.
+   */
+  Map<SearchableContainer, Set<SearchableElement>> search(
+      Collection<SearchableContainer> containers, String query) {
+    // Forget containers that are no longer searched.
+    for (Iterator<SearchableContainer> it = indexes.keySet().iterator(); it.hasNext(); ) {
+      if (!containers.contains(it.next())) {
+        it.remove();
+      }
+    }
+    String upperQuery = query.toUpperCase();
+    Map<SearchableContainer, Set<SearchableElement>> results =
+        new HashMap<SearchableContainer, Set<SearchableElement>>();
+    for (SearchableContainer container : containers) {
+      ContainerIndex index = indexes.get(container);
+      if (index == null) {
+        index = new ContainerIndex(container);
+        indexes.put(container, index);
+      }
+      Set<SearchableElement> found = null;
+      for (Entry entry : index.getCandidates(upperQuery)) {
+        if (entry.upperKeyword.contains(upperQuery)) {
+          if (found == null) {
+            found = new HashSet<SearchableElement>();
+            results.put(container, found);
+          }
+          found.add(entry.element);
+        }
+      }
+    }
+    return results;
+  }
+}
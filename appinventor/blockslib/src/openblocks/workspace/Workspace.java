@@ -65,6 +65,9 @@ public class Workspace extends JLayeredPane
    */
   private HashSet<WorkspaceListener> workspaceListeners = new HashSet<WorkspaceListener>();
 
+  /** The number of events that have been sent to the workspace listeners */
+  private int eventCount = 0;
+
   /** The reundomanager instance*/
   //private ReundoManager reundoManager;
 
@@ -493,11 +496,21 @@ public class Workspace extends JLayeredPane
    * @param event
    */
   public void notifyListeners(WorkspaceEvent event){
+    eventCount++;
     for(WorkspaceListener wl : workspaceListeners){
       wl.workspaceEventOccurred(event);
     }
   }
 
+  /**
+   * Returns the number of events that have been sent to the workspace
+   * listeners, so that caches of workspace state can tell when they might be
+   * out of date.
+   */
+  public int getEventCount() {
+    return eventCount;
+  }
+
   ////////////////////
   //TypeBLockManaging
   ////////////////////
@@ -682,6 +695,15 @@ public class Workspace extends JLayeredPane
     return blockCanvas.getSaveString();
   }
 
+  /**
+   * Appends the save String of this to saveString, avoiding an intermediate
+   * copy of the whole workspace.
+   * @param saveString the buffer to write to
+   */
+  public void appendSaveString(StringBuilder saveString){
+    blockCanvas.appendSaveString(saveString);
+  }
+
   /**
    * Loads the workspace with the following content:
    * - RenderableBlocks and their associated Block instances that reside
@@ -764,22 +786,7 @@ public class Workspace extends JLayeredPane
    * Want to get the Workspace ready to load another workspace
    */
   public void reset(){
-    //we can't iterate and remove widgets at the same time so
-    //we remove widgets after we've collected all the widgets we want to remove
-    //TreeSet.remove() doesn't always work on the TreeSet, so instead,
-    //we clear and re-add the widgets we want to keep
-    ArrayList<WorkspaceWidget> widgetsToRemove = new ArrayList<WorkspaceWidget>();
-    ArrayList<WorkspaceWidget> widgetsToKeep = new ArrayList<WorkspaceWidget>();
-    for(WorkspaceWidget w : workspaceWidgets){
-      if(w instanceof Page){
-        widgetsToRemove.add(w);
-      }else{
-        widgetsToKeep.add(w);
-      }
-    }
-    workspaceWidgets.clear();
-    workspaceWidgets.addAll(widgetsToKeep);
-    workspaceWidgets.add(factory);
+    ArrayList<WorkspaceWidget> widgetsToRemove = removePageWidgets();
     //We now reset the widgets we removed.
     //Doing this for each one gets costly.
     //Do not do this for Pages because on repaint,
@@ -805,6 +812,76 @@ public class Workspace extends JLayeredPane
     revalidate();
   }
 
+  /**
+   * Removes the pages from the set of workspace widgets.
+   * @return the removed pages
+   */
+  private ArrayList<WorkspaceWidget> removePageWidgets(){
+    //we can't iterate and remove widgets at the same time so
+    //we remove widgets after we've collected all the widgets we want to remove
+    //TreeSet.remove() doesn't always work on the TreeSet, so instead,
+    //we clear and re-add the widgets we want to keep
+    ArrayList<WorkspaceWidget> widgetsToRemove = new ArrayList<WorkspaceWidget>();
+    ArrayList<WorkspaceWidget> widgetsToKeep = new ArrayList<WorkspaceWidget>();
+    for(WorkspaceWidget w : workspaceWidgets){
+      if(w instanceof Page){
+        widgetsToRemove.add(w);
+      }else{
+        widgetsToKeep.add(w);
+      }
+    }
+    workspaceWidgets.clear();
+    workspaceWidgets.addAll(widgetsToKeep);
+    workspaceWidgets.add(factory);
+    return widgetsToRemove;
+  }
+
+  /** The contents of a detached Workspace */
+  private static class WorkspaceContents {
+    Page page;
+    Object drawers;
+    Object blocks;
+  }
+
+  /**
+   * Takes the page, the drawers and all RenderableBlock and Block instances
+   * out of the Workspace, leaving it as reset() would, but keeps them intact
+   * so that attachContents() can put them back without reloading them.
+   * @return the detached contents
+   */
+  public Object detachContents(){
+    // Resident pages are kept at the default zoom, as loaded pages are.
+    if (zoom != 1.0) {
+      setWorkspaceZoom(1.0);
+    }
+    WorkspaceContents contents = new WorkspaceContents();
+    removePageWidgets();
+    contents.page = blockCanvas.detachPage();
+    contents.drawers = factory.detachDrawers();
+    contents.blocks = RenderableBlock.detachRegistry();
+
+    blockCanvas.reset();
+    addPage(Page.getBlankPage(), false);
+    getFocusManager().reset();
+    revalidate();
+    return contents;
+  }
+
+  /**
+   * Replaces the contents of a reset Workspace with contents returned by
+   * detachContents().
+   * @param detached the contents to put back
+   */
+  public void attachContents(Object detached){
+    WorkspaceContents contents = (WorkspaceContents) detached;
+    RenderableBlock.attachRegistry(contents.blocks);
+    factory.attachDrawers(contents.drawers);
+    if (contents.page != null) {
+      addPage(contents.page);
+    }
+    revalidate();
+  }
+
   /***********************************
    * State Saving Stuff for Undo/Redo *
    ***********************************/
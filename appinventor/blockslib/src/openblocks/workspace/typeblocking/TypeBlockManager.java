@@ -360,6 +360,8 @@ public class TypeBlockManager {
     }
 
     autoCompletePanel.setLocation(location);
+    // Labels can change without workspace events, so start each session with a fresh index.
+    BlockUtilities.invalidateMatchingBlocksIndex();
     autoCompletePanel.setVisible(true);
     autoCompletePanel.requestFocus();
     autoCompletePanel.setText(String.valueOf(character));
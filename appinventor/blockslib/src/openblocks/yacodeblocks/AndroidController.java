@@ -6,6 +6,8 @@ package openblocks.yacodeblocks;
 
 import openblocks.yacodeblocks.AndroidController.DeviceConnectionListener;
 
+import java.util.Map;
+
 /**
  * An AndroidController for codeblocks provides access to an external
  * environment for cases where codeblocks needs to communicate with an
@@ -119,6 +121,14 @@ public interface AndroidController {
    */
   public void pushFileToDevice(String fileToPush, String remotePath)
       throws AndroidControllerException, ExternalStorageException;
+
+  /**
+   * Lists the files in a directory on the selected device.
+   * @param remoteDirectory the full path of the directory on the phone
+   * @return the sizes of the files in the directory, keyed by file name, or
+   *   null if they can't be listed (for example, over WiFi)
+   */
+  public Map<String, Long> listDeviceFiles(String remoteDirectory);
   
   /**
    * Make device the currently selected device. Used for WiFi connection.
@@ -10,7 +10,6 @@ import openblocks.workspace.WorkspaceEvent;
 import openblocks.workspace.WorkspaceListener;
 
 import java.lang.reflect.InvocationTargetException;
-import java.util.ArrayList;
 import java.util.Timer;
 import java.util.TimerTask;
 
@@ -40,14 +39,14 @@ import javax.swing.SwingUtilities;
  *           currentState in the history, move the currentState pointer forward
  *           and restores the workspace to that state.
  *
- * TODO(sharon): consider compressing the saved history strings to avoid
- * consuming too much memory (and possibly allowing a larger number
- * of saved states).
+ * The history is kept in a StateHistory, which stores most states as the
+ * text that changed since the previous state, so a deep history costs little
+ * more memory than a single workspace.
  * @author sharon@google.com (Sharon Perl) - undo/redo
  */
 public class AutoSaver implements WorkspaceListener {
   private static final boolean DEBUG = false;
-  private static final int MAX_HISTORY_SIZE = 20; // max depth of undo stack
+  private static final int MAX_HISTORY_SIZE = 100; // max depth of undo stack
 
   // Set testingMode to true to prevent the AutoSaver from really trying
   // to save files
@@ -66,11 +65,14 @@ public class AutoSaver implements WorkspaceListener {
   private volatile boolean listening = false;
   // alreadySaving prevents auto-save if explicit save is already in progress
   private volatile boolean alreadySaving = false;
-  private volatile ArrayList<String> history;
+  private final StateHistory history = new StateHistory();
   // if non-null, lastFormProperties should be the form properties string
   // that goes with the blocks state in history
   private volatile String lastFormProperties;
   private volatile int currentState;  // an index into history
+  // the save string given to the last onSnapshot; unless the workspace has
+  // changed since, it describes the workspace as it is now
+  private volatile String lastSnapshot;
   private final Object saverLock = new Object();  // protects volatile fields
 
   private final WorkspaceController controller;
@@ -172,6 +174,15 @@ public class AutoSaver implements WorkspaceListener {
     }
   }
 
+  /**
+   * Returns the save string of the last snapshot, or null if there has been
+   * none. Unless getWorkspaceChanged(), this is the saved form of the
+   * workspace as it is now.
+   */
+  public String getLastSnapshot() {
+    return lastSnapshot;
+  }
+
   /**
    * Should be called when a save attempt fails after a snapshot was taken.
    * Doing so informs the autosaver that it ought to try and save on its
@@ -217,6 +228,7 @@ public class AutoSaver implements WorkspaceListener {
     disableButton(saveButton);
 
     synchronized (saverLock) {
+      lastSnapshot = saveString;
       if (workspaceChangedByUser || currentState < 0) {
         addToHistory(saveString);
         workspaceChangedByUser = false;
@@ -403,7 +415,7 @@ public class AutoSaver implements WorkspaceListener {
       // common case unless we've been undo'ing
       if (history.size() >= MAX_HISTORY_SIZE) {
         System.out.println("Truncating undo history.");
-        history.remove(0);
+        history.removeFirst();
         currentState -= 1; // adjust for shift in history items
       }
       currentState += 1;
@@ -413,12 +425,10 @@ public class AutoSaver implements WorkspaceListener {
       // the new state goes into the history just after the current state
       currentState += 1;
       try {
-        history.set(currentState, stateString);
-        // clear out the history beyond index currentState. Do it from high
-        // to low indexes to avoid having to shift elements.
-        for (int i = history.size() - 1; i > currentState; --i) {
-          history.remove(i);
-        }
+        // clear out the history from index currentState on, then append
+        // the new state there.
+        history.truncate(currentState);
+        history.add(stateString);
       } catch (IndexOutOfBoundsException e) {
         e.printStackTrace();
         if (DEBUG) {
@@ -531,7 +541,7 @@ public class AutoSaver implements WorkspaceListener {
    */
   public void clearHistory() {
     synchronized (saverLock) {
-      history = new ArrayList<String>();
+      history.clear();
       currentState = -1;
       fixButtons();
     }
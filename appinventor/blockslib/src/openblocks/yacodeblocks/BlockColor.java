@@ -12,8 +12,6 @@ import org.w3c.dom.NodeList;
 import java.awt.Color;
 import java.util.HashMap;
 import java.util.StringTokenizer;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * BlockColor elements - maintains a map from color name to rgb value to make
@@ -37,8 +35,6 @@ public class BlockColor {
    * @param root the Element carrying the specifications of the BlockColors
    */
   public static void loadBlockColors(Element root){
-    Pattern attrExtractor=Pattern.compile("\"(.*)\"");
-    Matcher nameMatcher;
     NodeList nodes=root.getElementsByTagName("BlockColor");
     Node node;
 
@@ -47,16 +43,12 @@ public class BlockColor {
       if(node.getNodeName().equals("BlockColor")){
         String colorName = null; 
         Color colorValue = Color.BLACK;
-        nameMatcher=attrExtractor.matcher(node.getAttributes().getNamedItem("name").toString());
-        if (nameMatcher.find()) //will be true
-          colorName = nameMatcher.group(1);
-        nameMatcher=attrExtractor.matcher(node.getAttributes().getNamedItem("rgb-value").toString());
-        if (nameMatcher.find()){ //will be true
-          StringTokenizer col = new StringTokenizer(nameMatcher.group(1));
-          if(col.countTokens() == 3)
-            colorValue = new Color(Integer.parseInt(col.nextToken()), 
-                Integer.parseInt(col.nextToken()), Integer.parseInt(col.nextToken()));
-         }
+        colorName = node.getAttributes().getNamedItem("name").getNodeValue();
+        StringTokenizer col = new StringTokenizer(
+            node.getAttributes().getNamedItem("rgb-value").getNodeValue());
+        if(col.countTokens() == 3)
+          colorValue = new Color(Integer.parseInt(col.nextToken()), 
+              Integer.parseInt(col.nextToken()), Integer.parseInt(col.nextToken()));
         if (colorName != null && colorValue != null) {
           colorToValue.put(colorName, colorValue);
         }
@@ -72,39 +72,51 @@ public class BlockParser {
 
   // A large number of strings of YAIL fragments are declared at the end
 
-  // Mapping of Block ya-kind (see lang_def) to function name
-  private static final HashMap<String, String> blockKindToMethodMap = new HashMap<String, String>();
+  // Mapping of Block ya-kind (see lang_def) to the makeXXX method that
+  // generates its YAIL. The methods are looked up once here rather than for
+  // every block that is translated.
+  private static final HashMap<String, Method> blockKindToMethodMap = new HashMap<String, Method>();
   static {
-    blockKindToMethodMap.put("argument", "makeArgumentBlock");
-    blockKindToMethodMap.put("call", "makeUserProcedureCallBlock");
-    blockKindToMethodMap.put("choose", "makeIfElseBlock");
-    blockKindToMethodMap.put("color", "makeColorBlock");
-    blockKindToMethodMap.put("component", "makeComponentBlock");
-    blockKindToMethodMap.put("componentEvent", "makeComponentEventBlock");
-    blockKindToMethodMap.put("componentGetter", "makeCompVarGetBlock");
-    blockKindToMethodMap.put("componentMethod", "makeComponentMethodCallBlock");
-    blockKindToMethodMap.put("componentSetter", "makeCompVarSetBlock");
-    blockKindToMethodMap.put("componentTypeMethod", "makeComponentTypeMethodCallBlock");
-    blockKindToMethodMap.put("def", "makeDefineVarBlock");
-    blockKindToMethodMap.put("define", "makeDefineProcBlock");
-    blockKindToMethodMap.put("false", "makeFalseBlock");
-    blockKindToMethodMap.put("foreach", "makeForEachBlock");
-    blockKindToMethodMap.put("forrange", "makeForRangeBlock");
-    blockKindToMethodMap.put("getter", "makeGetterBlock");
-    blockKindToMethodMap.put("glue", "makeGlueBlock");
-    blockKindToMethodMap.put("and", "makeAndBlock");
-    blockKindToMethodMap.put("or", "makeOrBlock");
-    blockKindToMethodMap.put("if", "makeIfBlock");
-    blockKindToMethodMap.put("ifelse", "makeIfElseBlock");
-    blockKindToMethodMap.put("makeList", "makeListBlock");
-    blockKindToMethodMap.put("addToList", "makeAddToListBlock");
-    blockKindToMethodMap.put("null", "makeNullBlock");
-    blockKindToMethodMap.put("number", "makeNumberBlock");
-    blockKindToMethodMap.put("primitive", "makeYailPrimitiveCallBlock");
-    blockKindToMethodMap.put("setter", "makeVarSetBlock");
-    blockKindToMethodMap.put("text", "makeStringBlock");
-    blockKindToMethodMap.put("true", "makeTrueBlock");
-    blockKindToMethodMap.put("while", "makeWhileBlock");
+    String[][] kindsAndMethodNames = {
+      { "argument", "makeArgumentBlock" },
+      { "call", "makeUserProcedureCallBlock" },
+      { "choose", "makeIfElseBlock" },
+      { "color", "makeColorBlock" },
+      { "component", "makeComponentBlock" },
+      { "componentEvent", "makeComponentEventBlock" },
+      { "componentGetter", "makeCompVarGetBlock" },
+      { "componentMethod", "makeComponentMethodCallBlock" },
+      { "componentSetter", "makeCompVarSetBlock" },
+      { "componentTypeMethod", "makeComponentTypeMethodCallBlock" },
+      { "def", "makeDefineVarBlock" },
+      { "define", "makeDefineProcBlock" },
+      { "false", "makeFalseBlock" },
+      { "foreach", "makeForEachBlock" },
+      { "forrange", "makeForRangeBlock" },
+      { "getter", "makeGetterBlock" },
+      { "glue", "makeGlueBlock" },
+      { "and", "makeAndBlock" },
+      { "or", "makeOrBlock" },
+      { "if", "makeIfBlock" },
+      { "ifelse", "makeIfElseBlock" },
+      { "addToList", "makeAddToListBlock" },
+      { "null", "makeNullBlock" },
+      { "number", "makeNumberBlock" },
+      { "primitive", "makeYailPrimitiveCallBlock" },
+      { "setter", "makeVarSetBlock" },
+      { "text", "makeStringBlock" },
+      { "true", "makeTrueBlock" },
+      { "while", "makeWhileBlock" },
+    };
+    for (String[] kindAndMethodName : kindsAndMethodNames) {
+      try {
+        Method method = BlockParser.class.getDeclaredMethod(kindAndMethodName[1], Block.class);
+        method.setAccessible(true);
+        blockKindToMethodMap.put(kindAndMethodName[0], method);
+      } catch (NoSuchMethodException e) {
+        throw new IllegalStateException("No generator for block kind " + kindAndMethodName[0], e);
+      }
+    }
   }
 
   private static StringBuilder emptyStringBuilder = new StringBuilder("");
@@ -267,21 +279,11 @@ public class BlockParser {
   private StringBuilder invokeBlocksGenerator(Block block)
       throws EmptySocketException, BadBlockException {
     String kind = block.getProperty("ya-kind");
-    String methodName = getMethodFor(kind);
-    if (methodName == null) {
+    Method method = getMethodFor(kind);
+    if (method == null) {
       FeedbackReporter.showSystemErrorMessage("Invalid block kind: " + kind);
       return emptyStringBuilder;
     }
-    Method method;
-    try {
-      method = getClass().getDeclaredMethod(methodName, Block.class);
-    } catch (SecurityException e) {
-      FeedbackReporter.showSystemErrorMessage("Security exception " + e.getMessage());
-      return emptyStringBuilder;
-    } catch (NoSuchMethodException e) {
-      FeedbackReporter.showSystemErrorMessage("No such method. " + e.getMessage());
-      return emptyStringBuilder;
-    }
     try {
       return (StringBuilder) method.invoke(this, block);
     } catch (IllegalArgumentException e) {
@@ -323,7 +325,7 @@ public class BlockParser {
    *
    * @return The method call
    */
-  private String getMethodFor(String type) {
+  private Method getMethodFor(String type) {
     return blockKindToMethodMap.get(type);
   }
 
@@ -15,7 +15,9 @@ import org.xml.sax.SAXException;
 import java.io.IOException;
 import java.io.StringReader;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.ParserConfigurationException;
@@ -35,14 +37,31 @@ public class BlockSaveFile {
   private Document document;
   private Element documentRoot;
   private boolean wasUpgraded;
+  // The "Block" elements of the document, keyed by genus name. Built on first use by the upgrade
+  // routines and kept current by changeBlockGenusName.
+  private Map<String, List<Element>> blocksByGenus;
 
   public BlockSaveFile(Element langDefRoot, String contents) {
+    this(langDefRoot, parse(contents));
+  }
+
+  /**
+   * Creates a BlockSaveFile from a document returned by {@link #parse}, upgrading
+   * it to the current language and component versions if necessary. Like the
+   * other constructor, this reads the language definition and may show warning
+   * dialogs, so it must be called on the UI thread when the blocks editor is running.
+   *
+   * @param document the parsed save file, or null if it couldn't be parsed
+   */
+  public BlockSaveFile(Element langDefRoot, Document document) {
+    if (document == null) {
+      return;
+    }
     final int sysYaVersion = WorkspaceUtils.getYoungAndroidVersion(langDefRoot);
     final int sysLangVersion = WorkspaceUtils.getBlocksLanguageVersion(langDefRoot);
 
     try {
-      DocumentBuilder builder = WorkspaceUtils.newDocumentBuilder();
-      document = builder.parse(new InputSource(new StringReader(contents)));
+      this.document = document;
       documentRoot = document.getDocumentElement();
 
       if (needToUpgrade(getBlkYaVersion(), sysYaVersion)) {
@@ -64,6 +83,20 @@ public class BlockSaveFile {
       e.printStackTrace();
       FeedbackReporter.showWarningMessage(
           "This project was created with a newer version of the App Inventor system.");
+    }
+  }
+
+  /**
+   * Parses the contents of a block save file, without upgrading it.
+   * This doesn't touch the language definition or show any messages, so it can
+   * be called on any thread.
+   *
+   * @return the parsed document, or null if contents couldn't be parsed
+   */
+  public static Document parse(String contents) {
+    try {
+      DocumentBuilder builder = WorkspaceUtils.newDocumentBuilder();
+      return builder.parse(new InputSource(new StringReader(contents)));
     } catch (ParserConfigurationException e) {
       e.printStackTrace();
     } catch (SAXException e) {
@@ -71,6 +104,7 @@ public class BlockSaveFile {
     } catch (IOException e) {
       e.printStackTrace();
     }
+    return null;
   }
 
   public boolean wasUpgraded() {
@@ -1370,21 +1404,12 @@ public class BlockSaveFile {
    * the given component name, genus, and method or event name.
    */
   private List<Element> getAllMatchingGenusBlocks(String blockGenus) {
-    List<Element> matchingBlocks = new ArrayList<Element>();
-
-    NodeList blockNodeList = document.getElementsByTagName("Block");
-    int length = blockNodeList.getLength();
-    for (int i = 0; i < length; i++) {
-      // All of our Nodes should also be Elements.  Skip any that aren't.
-      if (blockNodeList.item(i) instanceof Element) {
-        Element block = (Element) blockNodeList.item(i);
-        if (blockGenus.equals(block.getAttribute("genus-name"))) {
-          matchingBlocks.add(block);
-        }
-      }
+    List<Element> genusBlocks = getBlocksByGenus().get(blockGenus);
+    if (genusBlocks == null) {
+      return new ArrayList<Element>();
     }
-
-    return matchingBlocks;
+    // Return a copy so that callers may change the genus of the blocks they are iterating over.
+    return new ArrayList<Element>(genusBlocks);
   }
 
   /*
@@ -1398,15 +1423,11 @@ public class BlockSaveFile {
 
     String blockGenus = componentGenus + "-" + methodOrEventName;
 
-    NodeList blockNodeList = document.getElementsByTagName("Block");
-    int length = blockNodeList.getLength();
-    for (int i = 0; i < length; i++) {
-      // All of our Nodes should also be Elements.  Skip any that aren't.
-      if (blockNodeList.item(i) instanceof Element) {
-        Element block = (Element) blockNodeList.item(i);
-        String blockGenusName = block.getAttribute("genus-name");
-        if (blockGenusName.equals(blockGenus) ||
-            ((methodOrEventName.length() == 0) && blockGenusName.startsWith(blockGenus))) {
+    for (Map.Entry<String, List<Element>> entry : getBlocksByGenus().entrySet()) {
+      String blockGenusName = entry.getKey();
+      if (blockGenusName.equals(blockGenus) ||
+          ((methodOrEventName.length() == 0) && blockGenusName.startsWith(blockGenus))) {
+        for (Element block : entry.getValue()) {
           // The block is the correct genus, but make sure it matches the componentName.
           // It could be for a different component of the same type.
           Node labelChild = getBlockLabelChild(block);
@@ -1422,6 +1443,35 @@ public class BlockSaveFile {
     return matchingBlocks;
   }
 
+  /*
+   * Returns the index of "Block" elements by genus name, walking the document
+   * to build it the first time it is needed.
+   */
+  private Map<String, List<Element>> getBlocksByGenus() {
+    if (blocksByGenus == null) {
+      blocksByGenus = new HashMap<String, List<Element>>();
+      NodeList blockNodeList = document.getElementsByTagName("Block");
+      int length = blockNodeList.getLength();
+      for (int i = 0; i < length; i++) {
+        // All of our Nodes should also be Elements.  Skip any that aren't.
+        if (blockNodeList.item(i) instanceof Element) {
+          Element block = (Element) blockNodeList.item(i);
+          indexBlock(block, block.getAttribute("genus-name"));
+        }
+      }
+    }
+    return blocksByGenus;
+  }
+
+  private void indexBlock(Element block, String genus) {
+    List<Element> genusBlocks = blocksByGenus.get(genus);
+    if (genusBlocks == null) {
+      genusBlocks = new ArrayList<Element>();
+      blocksByGenus.put(genus, genusBlocks);
+    }
+    genusBlocks.add(block);
+  }
+
   /*
    * Marks the given block as a bad block by adding a CompilerErrorMsg child
    * node.
@@ -1501,6 +1551,16 @@ public class BlockSaveFile {
   }
 
   private void changeBlockGenusName(Element block, String genus) {
+    if (blocksByGenus != null) {
+      List<Element> oldGenusBlocks = blocksByGenus.get(block.getAttribute("genus-name"));
+      if (oldGenusBlocks != null) {
+        oldGenusBlocks.remove(block);
+        if (oldGenusBlocks.isEmpty()) {
+          blocksByGenus.remove(block.getAttribute("genus-name"));
+        }
+      }
+      indexBlock(block, genus);
+    }
     block.setAttribute("genus-name", genus);
   }
 
@@ -136,6 +136,42 @@ public class ComponentBlockManager implements WorkspaceListener {
     compGenii = new HashMap<String, Integer>();
   }
 
+  /**
+   * The component data structures of a detached workspace
+   */
+  private class DetachedState {
+    private Map<String, ComponentInfo> componentNameToInfo;
+    private Map<String, ComponentInfo> componentTypeNameToInfo;
+    private Map<String, String> uuidToComponentName;
+    private Map<String, Integer> compGenii;
+  }
+
+  /**
+   * Takes away all component data structures, leaving them as reset() would,
+   * and returns them for attachState(). Call this when detaching a workspace.
+   */
+  public synchronized Object detachState() {
+    DetachedState state = new DetachedState();
+    state.componentNameToInfo = componentNameToInfo;
+    state.componentTypeNameToInfo = componentTypeNameToInfo;
+    state.uuidToComponentName = uuidToComponentName;
+    state.compGenii = compGenii;
+    reset();
+    return state;
+  }
+
+  /**
+   * Replaces all component data structures with ones returned by
+   * detachState(). Call this when attaching a workspace.
+   */
+  public synchronized void attachState(Object detached) {
+    DetachedState state = (DetachedState) detached;
+    componentNameToInfo = state.componentNameToInfo;
+    componentTypeNameToInfo = state.componentTypeNameToInfo;
+    uuidToComponentName = state.uuidToComponentName;
+    compGenii = state.compGenii;
+  }
+
 
   /**
    * Synchronize our idea of the components with the components described
@@ -87,8 +87,9 @@ public class DeviceReplCommController implements AndroidController.DeviceConnect
   }
 
   private void doWrite(String message) throws IOException {
-    out.write(message.getBytes("UTF-8"));
-    out.write('\n');
+    // Write the message and its newline together, so they go out in one packet rather than
+    // the newline waiting behind the acknowledgement of the message.
+    out.write((message + "\n").getBytes("UTF-8"));
     if (DEBUG) {
       System.out.println(String.format("Sent '%s\n", message));
     }
@@ -373,6 +374,13 @@ public class DeviceReplCommController implements AndroidController.DeviceConnect
     return androidController.getSelectedDevice();
   }
 
+  /**
+   * Returns the address of the REPL on the selected device.
+   */
+  public String getHost() {
+    return host;
+  }
+
   public boolean selectDevice(String device, String ipAddress) {
     try {
       if (device.equals("WiFi")) {
@@ -0,0 +1,235 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2009-2011 Google, All Rights reserved
+// Copyright 2011-2012 MIT, All rights reserved
+// Released under the MIT License https://raw.github.com/mit-cml/app-inventor/master/mitlicense.txt
+
+package openblocks.yacodeblocks;
+
+import org.apache.commons.io.IOUtils;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+/**
+ * Reads and writes snapshots of the language definition DOM.
+ *
+ * Parsing ya_lang_def.xml means tokenizing the whole file and validating it
+ * against lang_def.dtd, which is a noticeable part of starting the blocks
+ * editor. The build runs main() to record the parsed DOM, including the
+ * attributes that the DTD fills in, as a table of strings and a tree of
+ * indexes into it. Rebuilding the DOM from that skips the parser.
+ *
+ * A snapshot records a checksum of the XML it was made from, so that a
+ * snapshot that no longer matches the XML is ignored.
+ *
+ * @see WorkspaceUtils#loadLangDef()
+ */
+public class LangDefSnapshot {
+  private static final int MAGIC = 0x59414c44; // "YALD"
+  private static final int FORMAT_VERSION = 1;
+
+  private static final byte ELEMENT = 1;
+  private static final byte TEXT = 2;
+
+  private LangDefSnapshot() {
+  }
+
+  /**
+   * Returns the checksum of the language definition XML that snapshots
+   * record.
+   */
+  public static long checksum(byte[] langDefXml) {
+    CRC32 crc = new CRC32();
+    crc.update(langDefXml);
+    return crc.getValue();
+  }
+
+  /**
+   * Writes a snapshot of the language definition rooted at root, which was
+   * parsed from XML with the given checksum.
+   */
+  public static void write(Element root, long checksum, OutputStream out) throws IOException {
+    List<String> strings = new ArrayList<String>();
+    Map<String, Integer> stringIndexes = new HashMap<String, Integer>();
+    collectStrings(root, strings, stringIndexes);
+
+    DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+    data.writeInt(MAGIC);
+    data.writeInt(FORMAT_VERSION);
+    data.writeLong(checksum);
+    data.writeInt(strings.size());
+    for (String s : strings) {
+      byte[] bytes = s.getBytes("UTF-8");
+      data.writeInt(bytes.length);
+      data.write(bytes);
+    }
+    writeElement(root, stringIndexes, data);
+    data.flush();
+  }
+
+  /**
+   * Reads a snapshot and returns the root of the language definition, or null
+   * if the snapshot was made from XML with a different checksum, or by a
+   * different version of this class.
+   *
+   * @throws IOException if the snapshot can't be read or is corrupt
+   */
+  public static Element read(InputStream in, long expectedChecksum) throws IOException {
+    DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+    if (data.readInt() != MAGIC || data.readInt() != FORMAT_VERSION
+        || data.readLong() != expectedChecksum) {
+      return null;
+    }
+    int count = data.readInt();
+    String[] strings = new String[count];
+    for (int i = 0; i < count; i++) {
+      byte[] bytes = new byte[data.readInt()];
+      data.readFully(bytes);
+      strings[i] = new String(bytes, "UTF-8");
+    }
+    Document doc;
+    try {
+      doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+    } catch (ParserConfigurationException e) {
+      throw new IOException(e.toString());
+    }
+    try {
+      data.readByte(); // ELEMENT
+      Element root = readElement(doc, strings, data);
+      doc.appendChild(root);
+      return root;
+    } catch (ArrayIndexOutOfBoundsException e) {
+      throw new IOException("Corrupt language definition snapshot");
+    }
+  }
+
+  private static void collectStrings(Node node, List<String> strings,
+      Map<String, Integer> stringIndexes) {
+    if (node.getNodeType() == Node.ELEMENT_NODE) {
+      addString(node.getNodeName(), strings, stringIndexes);
+      NamedNodeMap attributes = node.getAttributes();
+      for (int i = 0; i < attributes.getLength(); i++) {
+        addString(attributes.item(i).getNodeName(), strings, stringIndexes);
+        addString(attributes.item(i).getNodeValue(), strings, stringIndexes);
+      }
+      NodeList children = node.getChildNodes();
+      for (int i = 0; i < children.getLength(); i++) {
+        collectStrings(children.item(i), strings, stringIndexes);
+      }
+    } else if (isText(node)) {
+      addString(node.getNodeValue(), strings, stringIndexes);
+    }
+  }
+
+  private static void addString(String s, List<String> strings,
+      Map<String, Integer> stringIndexes) {
+    if (!stringIndexes.containsKey(s)) {
+      stringIndexes.put(s, strings.size());
+      strings.add(s);
+    }
+  }
+
+  private static boolean isText(Node node) {
+    return node.getNodeType() == Node.TEXT_NODE
+        || node.getNodeType() == Node.CDATA_SECTION_NODE;
+  }
+
+  private static void writeElement(Node element, Map<String, Integer> stringIndexes,
+      DataOutputStream data) throws IOException {
+    data.writeByte(ELEMENT);
+    data.writeInt(stringIndexes.get(element.getNodeName()));
+    NamedNodeMap attributes = element.getAttributes();
+    data.writeInt(attributes.getLength());
+    for (int i = 0; i < attributes.getLength(); i++) {
+      data.writeInt(stringIndexes.get(attributes.item(i).getNodeName()));
+      data.writeInt(stringIndexes.get(attributes.item(i).getNodeValue()));
+    }
+    // Comments and processing instructions are left out.
+    List<Node> children = new ArrayList<Node>();
+    NodeList childNodes = element.getChildNodes();
+    for (int i = 0; i < childNodes.getLength(); i++) {
+      Node child = childNodes.item(i);
+      if (child.getNodeType() == Node.ELEMENT_NODE || isText(child)) {
+        children.add(child);
+      }
+    }
+    data.writeInt(children.size());
+    for (Node child : children) {
+      if (child.getNodeType() == Node.ELEMENT_NODE) {
+        writeElement(child, stringIndexes, data);
+      } else {
+        data.writeByte(TEXT);
+        data.writeInt(stringIndexes.get(child.getNodeValue()));
+      }
+    }
+  }
+
+  private static Element readElement(Document doc, String[] strings, DataInputStream data)
+      throws IOException {
+    Element element = doc.createElement(strings[data.readInt()]);
+    int attributeCount = data.readInt();
+    for (int i = 0; i < attributeCount; i++) {
+      String name = strings[data.readInt()];
+      element.setAttribute(name, strings[data.readInt()]);
+    }
+    int childCount = data.readInt();
+    for (int i = 0; i < childCount; i++) {
+      byte kind = data.readByte();
+      if (kind == ELEMENT) {
+        element.appendChild(readElement(doc, strings, data));
+      } else if (kind == TEXT) {
+        element.appendChild(doc.createTextNode(strings[data.readInt()]));
+      } else {
+        throw new IOException("Corrupt language definition snapshot");
+      }
+    }
+    return element;
+  }
+
+  /**
+   * Writes a snapshot of a language definition file. Run by the build.
+   *
+   * @param args the path of the language definition XML and the path to
+   *     write its snapshot to
+   */
+  public static void main(String[] args) throws Exception {
+    if (args.length != 2) {
+      System.err.println("Usage: LangDefSnapshot <lang def xml> <snapshot>");
+      System.exit(1);
+    }
+    InputStream in = new FileInputStream(args[0]);
+    byte[] langDefXml;
+    try {
+      langDefXml = IOUtils.toByteArray(in);
+    } finally {
+      in.close();
+    }
+    Element root = WorkspaceUtils.loadLangDef(new ByteArrayInputStream(langDefXml));
+    OutputStream out = new FileOutputStream(args[1]);
+    try {
+      write(root, checksum(langDefXml), out);
+    } finally {
+      out.close();
+    }
+  }
+}
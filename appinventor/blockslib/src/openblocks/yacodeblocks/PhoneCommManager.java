@@ -9,8 +9,15 @@ import openblocks.codeblockutil.CDeviceSelector;
 import openblocks.codeblockutil.PhoneCommIndicator;
 import openblocks.renderable.RenderableBlock;
 
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.InvocationTargetException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -111,6 +118,26 @@ public class PhoneCommManager {
   private static final String SDCARD_ASSET_DIR = "/sdcard/AppInventor/assets/";
   private volatile ConcurrentMap<String, String> downloadedProjectAssets;
 
+  // The assets we have pushed to each device, keyed by device and then by
+  // asset name, so that pushing an asset again only sends it if it has
+  // changed. Files on the device may have been removed or replaced while we
+  // weren't looking, so an asset is only skipped if the device still has a
+  // file of the size we pushed. Only accessed from the phoneSynchronizer queue.
+  private final Map<String, Map<String, PushedAsset>> pushedAssets =
+      new HashMap<String, Map<String, PushedAsset>>();
+
+  private static class PushedAsset {
+    final long size;
+    final long lastModified;
+    final String digest;
+
+    PushedAsset(long size, long lastModified, String digest) {
+      this.size = size;
+      this.lastModified = lastModified;
+      this.digest = digest;
+    }
+  }
+
   /*
    * Communication with the phone is performed in a separate thread. phoneSynchronizer
    * provides synchronous and asynchronous methods to queue calls for that
@@ -583,7 +610,7 @@ public class PhoneCommManager {
      * in them: We'll see them as spaces.  Can we live with that as a documented
      * misfeature?
      */
-    String noWhitespace = wrapped.replaceAll("\\s", " ");
+    String noWhitespace = flattenWhitespace(wrapped);
     if (DEBUG) {
       System.out.println("Sending to phone: " + noWhitespace);
     }
@@ -606,6 +633,26 @@ public class PhoneCommManager {
     }
   }
 
+  /**
+   * Returns text with each whitespace character (as matched by the regular
+   * expression "\\s") replaced by a space. The project definitions can be
+   * large, so this avoids running a regular expression over them.
+   */
+  //@VisibleForTesting
+  static String flattenWhitespace(String text) {
+    char[] chars = null;
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c == '\n' || c == '\t' || c == '\r' || c == '\f' || c == '\u000B') {
+        if (chars == null) {
+          chars = text.toCharArray();
+        }
+        chars[i] = ' ';
+      }
+    }
+    return (chars == null) ? text : new String(chars);
+  }
+
   /**
    * Adds an asset to the phone synchronously, and returns the result.
    * @param assetPath  the path of the asset on the server
@@ -659,8 +706,29 @@ public class PhoneCommManager {
   // REQUIRES: is called from the phoneSynchronizer queue
   private boolean psPushAssetToPhone(String assetName, String localAssetPath,
       boolean ignoreConnected) {
+    return psPushAssetToPhone(assetName, localAssetPath, ignoreConnected, null);
+  }
+
+  // REQUIRES: is called from the phoneSynchronizer queue
+  // remoteSizes is a listing of SDCARD_ASSET_DIR, or null to list it here if needed.
+  private boolean psPushAssetToPhone(String assetName, String localAssetPath,
+      boolean ignoreConnected, Map<String, Long> remoteSizes) {
     if (ignoreConnected || connectedToPhone()) {
       final String remoteAccessPath = SDCARD_ASSET_DIR + assetName;
+      Map<String, PushedAsset> pushed = pushedAssetsForSelectedDevice();
+      PushedAsset previous = pushed.remove(assetName);
+      if (previous != null) {
+        if (remoteSizes == null) {
+          remoteSizes = androidController.listDeviceFiles(SDCARD_ASSET_DIR);
+        }
+        if (isStillOnPhone(previous, new File(localAssetPath), remoteSizes, assetName)) {
+          if (DEBUG) {
+            System.out.println("Asset " + assetName + " is already on the phone");
+          }
+          pushed.put(assetName, previous);
+          return true;
+        }
+      }
       try {
         setSendingToPhone(true);
         if (DEBUG) {
@@ -671,6 +739,12 @@ public class PhoneCommManager {
         if (DEBUG) {
           System.out.println("Asset pushed to phone at: " + remoteAccessPath);
         }
+        File localFile = new File(localAssetPath);
+        String digest = digestOfFile(localAssetPath);
+        if (digest != null) {
+          pushed.put(assetName,
+              new PushedAsset(localFile.length(), localFile.lastModified(), digest));
+        }
         return true;
       } catch (AndroidControllerException e) {
         e.printStackTrace();
@@ -688,22 +762,113 @@ public class PhoneCommManager {
     }
   }
 
+  // REQUIRES: is called from the phoneSynchronizer queue
+  private Map<String, PushedAsset> pushedAssetsForSelectedDevice() {
+    String device = psReplController.getSelectedDevice() + "@" + psReplController.getHost();
+    Map<String, PushedAsset> pushed = pushedAssets.get(device);
+    if (pushed == null) {
+      pushed = new HashMap<String, PushedAsset>();
+      pushedAssets.put(device, pushed);
+    }
+    return pushed;
+  }
+
+  /**
+   * Returns true if the phone still has the file we pushed and the local
+   * file hasn't changed since. The contents are only hashed again if the
+   * sizes match but the local file has been rewritten.
+   */
+  private static boolean isStillOnPhone(PushedAsset previous, File localFile,
+      Map<String, Long> remoteSizes, String assetName) {
+    if (remoteSizes == null) {
+      return false;
+    }
+    Long remoteSize = remoteSizes.get(assetName);
+    if (remoteSize == null || remoteSize != previous.size
+        || localFile.length() != previous.size) {
+      return false;
+    }
+    return localFile.lastModified() == previous.lastModified
+        || previous.digest.equals(digestOfFile(localFile.getPath()));
+  }
+
   // REQUIRES: run from phone synchronizer queue.
   private void psPushAssetsToPhone() {
     if (DEBUG) {
       System.out.println("Pushing assets to phone...");
     }
+    Map<String, Long> remoteSizes = null;
+    if (!downloadedProjectAssets.isEmpty()) {
+      remoteSizes = androidController.listDeviceFiles(SDCARD_ASSET_DIR);
+    }
+    int assetCount = downloadedProjectAssets.size();
+    int assetNumber = 0;
     for (ConcurrentMap.Entry<String, String> entry : downloadedProjectAssets.entrySet()) {
       String assetPath = entry.getKey();
       String localAssetPath = entry.getValue();
       final String assetName = assetNameFromAssetPath(assetPath);
-      psPushAssetToPhone(assetName, localAssetPath, true /*ignore connect status*/);
+      assetNumber++;
+      showProgress("Sending media files to the device (" + assetNumber + " of "
+          + Math.max(assetNumber, assetCount) + ")");
+      psPushAssetToPhone(assetName, localAssetPath, true /*ignore connect status*/, remoteSizes);
     }
+    showProgress(null);
     if (DEBUG) {
       System.out.println("...finished pushing assets to phone.");
     }
   }
 
+  /**
+   * Shows message as the tool tip of the communication status icon, or
+   * removes the tool tip if message is null.
+   */
+  private void showProgress(final String message) {
+    if (commIndicator == null) {
+      return;
+    }
+    SwingUtilities.invokeLater(new Runnable() {
+      @Override
+      public void run() {
+        commIndicator.setToolTipText(message);
+      }
+    });
+  }
+
+  /**
+   * Returns a hex MD5 digest of the contents of the given file, or null if
+   * the file can't be read.
+   */
+  //@VisibleForTesting
+  static String digestOfFile(String path) {
+    InputStream in = null;
+    try {
+      MessageDigest md5 = MessageDigest.getInstance("MD5");
+      in = new FileInputStream(path);
+      byte[] buffer = new byte[8192];
+      int count;
+      while ((count = in.read(buffer)) != -1) {
+        md5.update(buffer, 0, count);
+      }
+      StringBuilder sb = new StringBuilder();
+      for (byte b : md5.digest()) {
+        sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+      }
+      return sb.toString();
+    } catch (IOException e) {
+      return null;
+    } catch (NoSuchAlgorithmException e) {
+      return null;
+    } finally {
+      if (in != null) {
+        try {
+          in.close();
+        } catch (IOException e) {
+          // Nothing we can do about it.
+        }
+      }
+    }
+  }
+
   private static String assetNameFromAssetPath(String assetPath) {
     if (assetPath.length() == 0) {
       return assetPath;
@@ -727,10 +892,13 @@ public class PhoneCommManager {
    * leftOver holds characters that have arrived from the phone that don't have a
    * complete response yet. Anything preceding a REPL_OPEN_BRACKET is garbage, but we'll
    * report it later.
+   * leftOverOpen is the index in leftOver of the first REPL_OPEN_BRACKET, or -1 if
+   * there isn't one yet, and leftOverScanned is where the search for the next bracket
+   * picks up, so that a large response arriving in many pieces is scanned only once.
    */
   private StringBuilder leftOver = new StringBuilder();
-  private static final Pattern grossResponseP = Pattern.compile("(?s)(.*?)" + REPL_OPEN_BRACKET +
-                                                                "(.*?)" + REPL_CLOSE_BRACKET);
+  private int leftOverOpen = -1;
+  private int leftOverScanned = 0;
   private static final Pattern fineResponseP = Pattern.compile(
       "(?s)([\\w ]*)" + REPL_BLOCK_ID_INDICATOR +
       "([\\d]*)" + REPL_RETURN_TAG_ENDER +
@@ -783,19 +951,40 @@ public class PhoneCommManager {
     }
     int responsesFound = 0;  // Just for sanity testing
     leftOver.append(received);
-    String candidate = leftOver.toString();
+    int start = 0;  // The start of the unprocessed part of leftOver
     while (true) {
-      Matcher completeResponse = grossResponseP.matcher(candidate);
-      if (!completeResponse.find()) {
-        leftOver.setLength(0);
-        leftOver.append(candidate);
-        return responsesFound;
+      if (leftOverOpen == -1) {
+        leftOverOpen = leftOver.indexOf(REPL_OPEN_BRACKET, leftOverScanned);
+        if (leftOverOpen == -1) {
+          // The last character may be the start of a REPL_OPEN_BRACKET.
+          leftOverScanned = Math.max(start,
+              leftOver.length() - (REPL_OPEN_BRACKET.length() - 1));
+          break;
+        }
+        leftOverScanned = leftOverOpen + REPL_OPEN_BRACKET.length();
+      }
+      int close = leftOver.indexOf(REPL_CLOSE_BRACKET, leftOverScanned);
+      if (close == -1) {
+        leftOverScanned = Math.max(leftOverOpen + REPL_OPEN_BRACKET.length(),
+            leftOver.length() - (REPL_CLOSE_BRACKET.length() - 1));
+        break;
       }
       responsesFound++;
-      candidate = candidate.substring(completeResponse.end());
-      checkNoise(completeResponse.group(1), error);
-      parseAndSendResponse(completeResponse.group(2), error);
+      checkNoise(leftOver.substring(start, leftOverOpen), error);
+      parseAndSendResponse(
+          leftOver.substring(leftOverOpen + REPL_OPEN_BRACKET.length(), close), error);
+      start = close + REPL_CLOSE_BRACKET.length();
+      leftOverOpen = -1;
+      leftOverScanned = start;
+    }
+    if (start > 0) {
+      leftOver.delete(0, start);
+      leftOverScanned -= start;
+      if (leftOverOpen != -1) {
+        leftOverOpen -= start;
+      }
     }
+    return responsesFound;
   }
 
   private void parseAndSendResponse(String grossResponse, Appendable error)  {
@@ -833,8 +1022,12 @@ public class PhoneCommManager {
   }
 
 
+  // Blank space and Kawa prompts. Note that \\s includes \\n; listing it as a separate
+  // alternative makes a failing match backtrack exponentially.
+  private static final Pattern noiseP = Pattern.compile("(\\s|#\\|kawa:[\\d]+\\|#)*");
+
   void checkNoise(String message, Appendable error) {
-    if (!message.matches("(\\n|\\s|#\\|kawa:[\\d]+\\|#)*")) {
+    if (!noiseP.matcher(message).matches()) {
       try {
         error.append("Ignored \"" + message + "\"\n");
       } catch (IOException e) {
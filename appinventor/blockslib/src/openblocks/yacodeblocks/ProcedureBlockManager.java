@@ -133,6 +133,25 @@ public class ProcedureBlockManager implements WorkspaceListener {
     procNameToBlockId = new HashMap<String, Long>();
   }
 
+  /**
+   * Takes away the procedure data structures, leaving them as reset() would,
+   * and returns them for attachState(). Call this when detaching a workspace.
+   */
+  public synchronized Object detachState() {
+    HashMap<String, Long> state = procNameToBlockId;
+    reset();
+    return state;
+  }
+
+  /**
+   * Replaces the procedure data structures with ones returned by
+   * detachState(). Call this when attaching a workspace.
+   */
+  @SuppressWarnings("unchecked")
+  public synchronized void attachState(Object detached) {
+    procNameToBlockId = (HashMap<String, Long>) detached;
+  }
+
   private void handleBlockAdded(WorkspaceEvent event) {
     if (!(event.getSourceWidget() instanceof Page)) {
       // don't care about blocks added to drawers
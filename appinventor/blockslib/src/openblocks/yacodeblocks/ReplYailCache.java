@@ -0,0 +1,136 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2009-2011 Google, All Rights reserved
+// Copyright 2011-2012 MIT, All rights reserved
+// Released under the MIT License https://raw.github.com/mit-cml/app-inventor/master/mitlicense.txt
+
+package openblocks.yacodeblocks;
+
+import openblocks.codeblocks.Block;
+import openblocks.codeblocks.BlockLink;
+import openblocks.codeblocks.BlockStub;
+import openblocks.renderable.RenderableBlock;
+import openblocks.workspace.FactoryManager;
+import openblocks.workspace.WorkspaceEvent;
+import openblocks.workspace.WorkspaceListener;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Remembers the REPL Yail generated for each top-level block so that
+ * regenerating the definitions for the whole project (on connecting to the
+ * phone, undo, redo, etc.) only has to translate the clumps that changed.
+ *
+ * Entries are dropped as workspace events report changes. Edits inside a
+ * clump drop just that clump, along with the clumps holding stubs of its top
+ * block (e.g. callers, whose sockets follow the procedure's arguments without
+ * workspace events of their own); anything that can change how other clumps
+ * translate (renames, added or removed blocks, page changes) drops
+ * everything. YABlockCompiler only stores Yail for clumps that translated
+ * without complaints, since reusing an entry does not re-post them.
+ *
+ * Yail generation can run off the event dispatch thread while workspace
+ * events arrive on it, so all access is synchronized.
+ */
+class ReplYailCache implements WorkspaceListener {
+  private final Map<Long, String> yailByTopBlock = new HashMap<Long, String>();
+  // The component names the entries were generated against. Renaming or
+  // deleting a component rewrites block labels without workspace events.
+  private Set<String> componentNames;
+
+  /**
+   * Returns the cached Yail for the clump whose top block is topBlockID, or
+   * null if there is none.
+   */
+  synchronized String get(Long topBlockID) {
+    return yailByTopBlock.get(topBlockID);
+  }
+
+  synchronized void put(Long topBlockID, String yail) {
+    yailByTopBlock.put(topBlockID, yail);
+  }
+
+  /**
+   * Drops every entry if the set of components differs from the one the
+   * entries were generated against.
+   */
+  synchronized void checkComponents(Set<String> currentComponentNames) {
+    if (!currentComponentNames.equals(componentNames)) {
+      yailByTopBlock.clear();
+      componentNames = new HashSet<String>(currentComponentNames);
+    }
+  }
+
+  synchronized void clear() {
+    yailByTopBlock.clear();
+  }
+
+  @Override
+  public synchronized void workspaceEventOccurred(WorkspaceEvent event) {
+    switch (event.getEventType()) {
+      case WorkspaceEvent.BLOCK_MOVED:
+      case WorkspaceEvent.BLOCK_NOTE_ADDED:
+      case WorkspaceEvent.BLOCK_NOTE_REMOVED:
+      case WorkspaceEvent.BLOCK_NOTE_MOVED:
+      case WorkspaceEvent.BLOCK_NOTE_RESIZED:
+      case WorkspaceEvent.BLOCK_NOTE_VISIBILITY_CHANGE:
+      case WorkspaceEvent.BLOCK_NOTE_CHANGED:
+      case WorkspaceEvent.BLOCK_COLLAPSE_CHANGE:
+      case WorkspaceEvent.BLOCK_REPORT_CHANGE:
+      case WorkspaceEvent.BLOCK_DO_IT:
+      case WorkspaceEvent.BLOCK_DOUBLE_CLICKED:
+        // These don't change the generated Yail.
+        break;
+      case WorkspaceEvent.BLOCKS_CONNECTED:
+      case WorkspaceEvent.BLOCKS_DISCONNECTED:
+        BlockLink link = event.getSourceLink();
+        if (link == null) {
+          clear();
+        } else {
+          invalidateClumpOf(link.getSocketBlockID());
+          invalidateClumpOf(link.getPlugBlockID());
+        }
+        break;
+      case WorkspaceEvent.BLOCK_ACTIVATED:
+      case WorkspaceEvent.BLOCK_DEACTIVATED:
+        invalidateClumpOf(event.getSourceBlockID());
+        break;
+      case WorkspaceEvent.BLOCK_ADDED:
+      case WorkspaceEvent.BLOCK_REMOVED:
+        if (event.getSourceWidget() instanceof FactoryManager) {
+          // Blocks coming and going in the drawers aren't part of the program.
+          break;
+        }
+        clear();
+        break;
+      default:
+        clear();
+        break;
+    }
+  }
+
+  private void invalidateClumpOf(Long blockID) {
+    if (blockID == null || blockID.equals(Block.NULL)) {
+      clear();
+      return;
+    }
+    yailByTopBlock.remove(blockID);
+    RenderableBlock rb = RenderableBlock.getRenderableBlock(blockID);
+    if (rb == null) {
+      clear();
+      return;
+    }
+    Long topBlockID = rb.getTopmost().getBlockID();
+    yailByTopBlock.remove(topBlockID);
+    for (Long stubID : BlockStub.getStubsOfParent(topBlockID)) {
+      RenderableBlock stub = RenderableBlock.getRenderableBlock(stubID);
+      if (stub == null) {
+        clear();
+        return;
+      }
+      yailByTopBlock.remove(stub.getTopmost().getBlockID());
+    }
+  }
+}
@@ -0,0 +1,132 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2009-2011 Google, All Rights reserved
+// Copyright 2011-2012 MIT, All rights reserved
+// Released under the MIT License https://raw.github.com/mit-cml/app-inventor/master/mitlicense.txt
+
+package openblocks.yacodeblocks;
+
+import java.lang.ref.SoftReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The screens of the current project that have been switched away from but
+ * are still loaded, so that switching back to one of them doesn't have to
+ * rebuild its blocks.
+ *
+ * Screens are kept in least recently used order, and the least recently used
+ * ones are dropped once there are more than MAX_SCREENS of them or they hold
+ * more than MAX_BLOCKS blocks between them. They are also only softly
+ * reachable, so the garbage collector drops them before running out of memory.
+ * A dropped screen is simply loaded again when it is switched to.
+ *
+ * Only changed on the Swing thread, while loading with the
+ * WorkspaceController's lock held.
+ *
+ * @see WorkspaceController#loadSourceAndProperties
+ */
+class ResidentScreens {
+  private static final int MAX_SCREENS = 4;
+  private static final int MAX_BLOCKS = 20000;
+
+  /**
+   * A screen whose workspace contents have been detached.
+   */
+  static class Screen {
+    // The saved form of the screen's blocks when they were detached
+    final String source;
+    final Object workspaceContents;
+    final Object componentState;
+    final Object procedureState;
+    // The number of blocks, including drawer blocks, as an estimate of size
+    final int blockCount;
+
+    Screen(String source, Object workspaceContents, Object componentState,
+        Object procedureState, int blockCount) {
+      this.source = source;
+      this.workspaceContents = workspaceContents;
+      this.componentState = componentState;
+      this.procedureState = procedureState;
+      this.blockCount = blockCount;
+    }
+  }
+
+  private static class Entry {
+    final SoftReference<Screen> screen;
+    final int blockCount;
+
+    Entry(Screen screen) {
+      this.screen = new SoftReference<Screen>(screen);
+      this.blockCount = screen.blockCount;
+    }
+  }
+
+  // Keyed by codeblocks source save path, in access order
+  private final LinkedHashMap<String, Entry> entries =
+      new LinkedHashMap<String, Entry>(MAX_SCREENS + 1, 0.75f, true);
+  private int blockCount = 0;
+
+  /**
+   * Keeps screen, which was saved at path, dropping least recently used
+   * screens as necessary.
+   */
+  void put(String path, Screen screen) {
+    remove(path);
+    if (screen.blockCount > MAX_BLOCKS) {
+      return;
+    }
+    entries.put(path, new Entry(screen));
+    blockCount += screen.blockCount;
+    Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+    while (entries.size() > MAX_SCREENS || blockCount > MAX_BLOCKS) {
+      blockCount -= it.next().getValue().blockCount;
+      it.remove();
+    }
+  }
+
+  /**
+   * Removes the screen saved at path, and returns it if its blocks are still
+   * those in source.
+   *
+   * @return the screen, or null if it is not resident or has changed
+   */
+  Screen take(String path, String source) {
+    Entry entry = remove(path);
+    if (entry == null) {
+      return null;
+    }
+    Screen screen = entry.screen.get();
+    return (screen != null && screen.source.equals(source)) ? screen : null;
+  }
+
+  /**
+   * Returns whether take(path, source) would return a screen, without
+   * making it the most recently used.
+   */
+  boolean holds(String path, String source) {
+    for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+      if (entry.getKey().equals(path)) {
+        Screen screen = entry.getValue().screen.get();
+        return screen != null && screen.source.equals(source);
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Drops all the screens, as when another project is loaded.
+   */
+  void clear() {
+    entries.clear();
+    blockCount = 0;
+  }
+
+  private Entry remove(String path) {
+    Entry entry = entries.remove(path);
+    if (entry != null) {
+      blockCount -= entry.blockCount;
+    }
+    return entry;
+  }
+}
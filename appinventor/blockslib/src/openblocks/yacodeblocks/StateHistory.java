@@ -0,0 +1,229 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2009-2011 Google, All Rights reserved
+// Copyright 2011-2012 MIT, All rights reserved
+// Released under the MIT License https://raw.github.com/mit-cml/app-inventor/master/mitlicense.txt
+
+package openblocks.yacodeblocks;
+
+import java.io.ByteArrayOutputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * A compact list of blocks workspace save strings, used by the AutoSaver
+ * for its undo/redo history.
+ *
+ * Most edits touch a small part of the workspace, so consecutive states share
+ * nearly all of their text. Each state is stored as the span of text that
+ * differs from the state before it. Every KEYFRAME_INTERVAL states, and
+ * whenever a delta would not save much, the whole state is stored deflated
+ * instead, so that rebuilding a state never replays a long chain of deltas.
+ *
+ * Not thread safe; the AutoSaver calls it with its saverLock held.
+ */
+class StateHistory {
+  private static final int KEYFRAME_INTERVAL = 10;
+  private static final String ENCODING = "UTF-8";
+
+  /*
+   * One state in the history. Either keyframe is non-null and holds the
+   * deflated state, or the state is the previous state with the text between
+   * prefixLength and (length - suffixLength) replaced by middle.
+   */
+  private static class Entry {
+    final byte[] keyframe;
+    final int keyframeLength;
+    final int prefixLength;
+    final int suffixLength;
+    final String middle;
+
+    Entry(byte[] keyframe, int keyframeLength) {
+      this.keyframe = keyframe;
+      this.keyframeLength = keyframeLength;
+      this.prefixLength = 0;
+      this.suffixLength = 0;
+      this.middle = null;
+    }
+
+    Entry(int prefixLength, int suffixLength, String middle) {
+      this.keyframe = null;
+      this.keyframeLength = 0;
+      this.prefixLength = prefixLength;
+      this.suffixLength = suffixLength;
+      this.middle = middle;
+    }
+  }
+
+  private final ArrayList<Entry> entries = new ArrayList<Entry>();
+
+  // The most recently added or rebuilt state, so that the common operations
+  // (comparing against and diffing from the current state, stepping one state
+  // back or forward) don't have to rebuild from a keyframe.
+  private int cachedIndex = -1;
+  private String cachedState;
+
+  int size() {
+    return entries.size();
+  }
+
+  /**
+   * Returns the state at index.
+   */
+  String get(int index) {
+    if (index < 0 || index >= entries.size()) {
+      throw new IndexOutOfBoundsException("index = " + index + ", size = " + entries.size());
+    }
+    if (index == cachedIndex) {
+      return cachedState;
+    }
+    int start = index;
+    while (entries.get(start).keyframe == null) {
+      start--;
+    }
+    String state;
+    if (cachedIndex >= start && cachedIndex < index) {
+      start = cachedIndex;
+      state = cachedState;
+    } else {
+      Entry keyframe = entries.get(start);
+      state = inflate(keyframe.keyframe, keyframe.keyframeLength);
+    }
+    for (int i = start + 1; i <= index; i++) {
+      state = applyDelta(state, entries.get(i));
+    }
+    cachedIndex = index;
+    cachedState = state;
+    return state;
+  }
+
+  /**
+   * Appends state to the end of the history.
+   */
+  void add(String state) {
+    Entry entry = null;
+    int size = entries.size();
+    if (size > 0 && !keyframeDue()) {
+      String previous = get(size - 1);
+      int maxCommon = Math.min(previous.length(), state.length());
+      int prefixLength = 0;
+      while (prefixLength < maxCommon
+          && previous.charAt(prefixLength) == state.charAt(prefixLength)) {
+        prefixLength++;
+      }
+      int suffixLength = 0;
+      while (suffixLength < maxCommon - prefixLength
+          && previous.charAt(previous.length() - 1 - suffixLength)
+          == state.charAt(state.length() - 1 - suffixLength)) {
+        suffixLength++;
+      }
+      String middle = state.substring(prefixLength, state.length() - suffixLength);
+      // A delta that rewrites most of the state is no cheaper than a keyframe.
+      if (middle.length() < state.length() / 4) {
+        entry = new Entry(prefixLength, suffixLength, middle);
+      }
+    }
+    if (entry == null) {
+      entry = makeKeyframe(state);
+    }
+    entries.add(entry);
+    cachedIndex = entries.size() - 1;
+    cachedState = state;
+  }
+
+  /**
+   * Removes the oldest state from the history.
+   */
+  void removeFirst() {
+    if (entries.size() > 1 && entries.get(1).keyframe == null) {
+      // The next state is stored relative to the one being removed.
+      String next = get(1);
+      entries.set(1, makeKeyframe(next));
+    }
+    entries.remove(0);
+    cachedIndex--;
+    if (cachedIndex < 0) {
+      cachedState = null;
+    }
+  }
+
+  /**
+   * Removes every state at or beyond index newSize.
+   */
+  void truncate(int newSize) {
+    for (int i = entries.size() - 1; i >= newSize; --i) {
+      entries.remove(i);
+    }
+    if (cachedIndex >= newSize) {
+      cachedIndex = -1;
+      cachedState = null;
+    }
+  }
+
+  /**
+   * Removes all states.
+   */
+  void clear() {
+    entries.clear();
+    cachedIndex = -1;
+    cachedState = null;
+  }
+
+  private boolean keyframeDue() {
+    int deltas = 0;
+    for (int i = entries.size() - 1; entries.get(i).keyframe == null; i--) {
+      deltas++;
+    }
+    return deltas >= KEYFRAME_INTERVAL - 1;
+  }
+
+  private static String applyDelta(String previous, Entry delta) {
+    StringBuilder sb = new StringBuilder(
+        delta.prefixLength + delta.middle.length() + delta.suffixLength);
+    sb.append(previous, 0, delta.prefixLength);
+    sb.append(delta.middle);
+    sb.append(previous, previous.length() - delta.suffixLength, previous.length());
+    return sb.toString();
+  }
+
+  private static Entry makeKeyframe(String state) {
+    byte[] bytes;
+    try {
+      bytes = state.getBytes(ENCODING);
+    } catch (UnsupportedEncodingException e) {
+      throw new IllegalStateException(e);
+    }
+    Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    deflater.setInput(bytes);
+    deflater.finish();
+    ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 4 + 64);
+    byte[] buffer = new byte[8192];
+    while (!deflater.finished()) {
+      int count = deflater.deflate(buffer);
+      out.write(buffer, 0, count);
+    }
+    deflater.end();
+    return new Entry(out.toByteArray(), bytes.length);
+  }
+
+  private static String inflate(byte[] deflated, int length) {
+    Inflater inflater = new Inflater();
+    inflater.setInput(deflated);
+    byte[] bytes = new byte[length];
+    try {
+      int offset = 0;
+      while (offset < length && !inflater.finished()) {
+        offset += inflater.inflate(bytes, offset, length - offset);
+      }
+      return new String(bytes, ENCODING);
+    } catch (DataFormatException e) {
+      throw new IllegalStateException(e);
+    } catch (UnsupportedEncodingException e) {
+      throw new IllegalStateException(e);
+    } finally {
+      inflater.end();
+    }
+  }
+}
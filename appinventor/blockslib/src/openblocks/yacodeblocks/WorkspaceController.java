@@ -7,6 +7,7 @@ package openblocks.yacodeblocks;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
 import openblocks.codeblocks.Block;
@@ -28,6 +29,7 @@ import openblocks.workspace.ZoomSlider;
 import openblocks.workspace.typeblocking.TypeBlockManager;
 
 import java.awt.BorderLayout;
+import java.awt.Cursor;
 import java.awt.Dimension;
 import java.awt.Point;
 import java.awt.Rectangle;
@@ -86,6 +88,11 @@ public class WorkspaceController implements IWorkspaceController, WorkspaceListe
 
   private final AutoSaver autoSaver;
 
+  // Yail for each top-level block, reused when regenerating the REPL definitions
+  private final ReplYailCache replYailCache = new ReplYailCache();
+  // Other screens of the current project, still loaded
+  private final ResidentScreens residentScreens = new ResidentScreens();
+
   private Element langDefRoot;
 
   private static final String NO_SAVE_WARNING = "\nThe project will not be saved if you do not " +
@@ -160,6 +167,7 @@ public class WorkspaceController implements IWorkspaceController, WorkspaceListe
     workspace.addWorkspaceListener(cbm);
     workspace.addWorkspaceListener(pbm);
     workspace.addWorkspaceListener(this);
+    workspace.addWorkspaceListener(replYailCache);
   }
 
   /*
@@ -414,7 +422,7 @@ public class WorkspaceController implements IWorkspaceController, WorkspaceListe
         saveString.append("<YACodeBlocks ya-version=\"" +
             WorkspaceUtils.getYoungAndroidVersion(langDefRoot) + "\" lang-version=\"" +
             WorkspaceUtils.getBlocksLanguageVersion(langDefRoot) + "\">\n");
-        saveString.append(getWorkspaceInstance().getSaveString());
+        getWorkspaceInstance().appendSaveString(saveString);
         saveString.append(cbm.getSaveString());
         saveString.append("</YACodeBlocks>");
         // note: need to call autoSaver.onSnapshot here to ensure that
@@ -522,11 +530,18 @@ public class WorkspaceController implements IWorkspaceController, WorkspaceListe
   }
 
   private void resetWorkspace(){
-    codeblocksSourceSavePath = null;
     //clear all pages and their drawers
     //clear all drawers and their content
     //clear all block and renderable block instances
     getWorkspaceInstance().reset();
+    resetScreenState();
+  }
+
+  // Reset what we know about the loaded screen, apart from the workspace
+  // contents.
+  private void resetScreenState(){
+    codeblocksSourceSavePath = null;
+    replYailCache.clear();
     if(zoomSlider != null) {
       zoomSlider.reset();  // Avoid firing property change.
     } else {
@@ -540,6 +555,40 @@ public class WorkspaceController implements IWorkspaceController, WorkspaceListe
     pcm.updateStatusIndicators();
   }
 
+  // If the loaded screen is being switched away from and has been saved,
+  // detach it from the workspace and keep it in residentScreens, so that
+  // switching back to it doesn't have to reload it. Leaves the workspace
+  // reset either way.
+  private void keepScreenResident(String nextCodeblocksSourceSavePath) {
+    String path = codeblocksSourceSavePath;
+    String source = autoSaver.getLastSnapshot();
+    if (!workspaceLoaded || path == null || path.length() == 0
+        || path.equals(nextCodeblocksSourceSavePath)
+        || source == null || autoSaver.getWorkspaceChanged()) {
+      return;
+    }
+    int blockCount = RenderableBlock.getAllRenderableBlocks().size();
+    Object contents = getWorkspaceInstance().detachContents();
+    residentScreens.put(path, new ResidentScreens.Screen(source, contents,
+        cbm.detachState(), pbm.detachState(), blockCount));
+    resetScreenState();
+    workspaceLoaded = false;
+  }
+
+  // Put a screen kept by keepScreenResident back in the workspace, with
+  // newCodeblocksSourceSavePath as the save path.
+  private void doAttachScreen(String newCodeblocksSourceSavePath,
+      ResidentScreens.Screen screen) {
+    if (workspaceLoaded) {
+      resetWorkspace();
+    }
+    getWorkspaceInstance().attachContents(screen.workspaceContents);
+    cbm.attachState(screen.componentState);
+    pbm.attachState(screen.procedureState);
+    codeblocksSourceSavePath = newCodeblocksSourceSavePath;
+    workspaceLoaded = true;
+  }
+
   /**
    * @param yailPath points to the location of the output code
    * @return the Yail with a suitable preamble.
@@ -691,7 +740,7 @@ public class WorkspaceController implements IWorkspaceController, WorkspaceListe
       }
     }
     String code = YABlockCompiler.generateYailForProject(formProperties,
-        componentMap, forRepl) + "\n";
+        componentMap, forRepl, forRepl ? replYailCache : null) + "\n";
     int hardErrors = ComplaintDepartment.showCompiletimeComplaints();
     if (hardErrors == 0) {
       return code;
@@ -824,9 +873,17 @@ public class WorkspaceController implements IWorkspaceController, WorkspaceListe
 
     final boolean differentProject = !projectName.equals(currentProjectName);
 
+    // Parse the source here, so that the UI thread doesn't have to. Upgrading
+    // it reads the language definition and may show warnings, so that is left
+    // to the UI thread. A resident screen doesn't need the source parsed.
+    final boolean sourceParsed = codeblocksSource.length() != 0 && (differentProject
+        || !residentScreens.holds(newCodeblocksSourceSavePath, codeblocksSource));
+    final Document parsedSource = sourceParsed ? BlockSaveFile.parse(codeblocksSource) : null;
+
     final class LoadRunnable implements Runnable {
       public void run() {
         boolean blocksWereUpgraded = false;
+        getWorkspaceInstance().setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
         try {
           autoSaver.stopListening();
           autoSaver.clearHistory();  // is this needed? we reset later
@@ -837,11 +894,27 @@ public class WorkspaceController implements IWorkspaceController, WorkspaceListe
           boolean clearAssets = differentProject;
           // We don't even need to reset the phone! How cool is that?
           boolean resetPhone = false;
-          if (codeblocksSource.length() == 0) {
+          ResidentScreens.Screen screen = null;
+          if (differentProject) {
+            residentScreens.clear();
+          } else {
+            keepScreenResident(newCodeblocksSourceSavePath);
+            screen = residentScreens.take(newCodeblocksSourceSavePath, codeblocksSource);
+          }
+          if (screen != null) {
+            if (DEBUG) {
+              System.out.println("WorkspaceController: switching back to resident screen");
+            }
+            doAttachScreen(newCodeblocksSourceSavePath, screen);
+          } else if (codeblocksSource.length() == 0) {
             doLoadFreshWorkspace(newCodeblocksSourceSavePath, null, clearAssets, resetPhone);
           } else {
+            // The source wasn't parsed above if we expected a resident screen
+            // that has been dropped since.
             blocksWereUpgraded = doLoadCodeblocksSource(newCodeblocksSourceSavePath,
-                codeblocksSource, clearAssets, resetPhone);
+                new BlockSaveFile(langDefRoot,
+                    sourceParsed ? parsedSource : BlockSaveFile.parse(codeblocksSource)),
+                clearAssets, resetPhone);
           }
           System.out.println("WorkspaceController: loaded Codeblocks Source, starting JSON");
           if (differentProject) {
@@ -857,6 +930,7 @@ public class WorkspaceController implements IWorkspaceController, WorkspaceListe
         } catch (LoadException e) {
           FeedbackReporter.showErrorMessage(e.getMessage() + NO_SAVE_WARNING);
         } finally {
+          getWorkspaceInstance().setCursor(null);
           System.out.println("WorkspaceController: workspace reload done");
           autoSaver.reset();
           System.out.println("Called autoSaver.reset();");
@@ -918,11 +992,21 @@ public class WorkspaceController implements IWorkspaceController, WorkspaceListe
    */
   private boolean doLoadCodeblocksSource(final String newCodeblocksSourceSavePath,
       String codeblocksSource, boolean clearAssets, boolean resetPhone) throws LoadException {
+    return doLoadCodeblocksSource(newCodeblocksSourceSavePath,
+        new BlockSaveFile(langDefRoot, codeblocksSource), clearAssets, resetPhone);
+  }
+
+  /**
+   * Load the blocks workspace from an already parsed and upgraded save file.
+   * @see #doLoadCodeblocksSource(String, String, boolean, boolean)
+   */
+  private boolean doLoadCodeblocksSource(final String newCodeblocksSourceSavePath,
+      BlockSaveFile blockSaveFile, boolean clearAssets, boolean resetPhone)
+      throws LoadException {
     //reset only if workspace actually exists
     if(workspaceLoaded) {
       resetWorkspace();
     }
-    BlockSaveFile blockSaveFile = new BlockSaveFile(langDefRoot, codeblocksSource);
     try {
       loadingBlocks = true;
       getWorkspaceInstance().loadWorkspaceFrom(blockSaveFile.getRoot(), langDefRoot);
@@ -958,6 +1042,7 @@ public class WorkspaceController implements IWorkspaceController, WorkspaceListe
   }
 
   private void doLoadFormProperties(JSONObject properties) {
+    replYailCache.clear();
     if (properties != null) {
       try {
         currentFormName = properties.getJSONObject("Properties").getString("$Name");
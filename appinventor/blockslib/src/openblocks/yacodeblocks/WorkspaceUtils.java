@@ -13,6 +13,7 @@ import openblocks.codeblocks.CommandRule;
 import openblocks.codeblocks.ComplaintDepartment;
 import openblocks.codeblocks.SocketRule;
 
+import org.apache.commons.io.IOUtils;
 import org.json.JSONException;
 import org.json.JSONObject;
 import org.w3c.dom.Document;
@@ -24,6 +25,7 @@ import openblocks.workspace.Page;
 import openblocks.workspace.Workspace;
 import openblocks.workspace.WorkspaceWidget;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
@@ -43,6 +45,7 @@ import javax.xml.parsers.ParserConfigurationException;
 public class WorkspaceUtils {
   private static final boolean DEBUG = false;
   private static final String LANG_DEF_XML_PATH = "support/ya_lang_def.xml";
+  private static final String LANG_DEF_SNAPSHOT_PATH = "support/ya_lang_def.snapshot";
   private static final String GLOBALS = "Global Definitions";
 
   private WorkspaceUtils() {
@@ -113,11 +116,32 @@ public class WorkspaceUtils {
       throws IOException, ParserConfigurationException, SAXException {
     //System.out.println("Loading language def from jar resource: " + LANG_DEF_XML_PATH);
     InputStream langDefStream = WorkspaceUtils.class.getResourceAsStream(LANG_DEF_XML_PATH);
+    byte[] langDefXml;
     try {
-      return loadLangDef(langDefStream);
+      langDefXml = IOUtils.toByteArray(langDefStream);
     } finally {
       langDefStream.close();
     }
+    // The build stores a snapshot of the parsed language definition alongside
+    // it, which is much quicker to load. Fall back to the XML if the snapshot
+    // is missing or was made from different XML.
+    InputStream snapshotStream =
+        WorkspaceUtils.class.getResourceAsStream(LANG_DEF_SNAPSHOT_PATH);
+    if (snapshotStream != null) {
+      try {
+        Element root = LangDefSnapshot.read(snapshotStream,
+            LangDefSnapshot.checksum(langDefXml));
+        if (root != null) {
+          return root;
+        }
+        System.out.println("Language definition snapshot is stale; parsing " + LANG_DEF_XML_PATH);
+      } catch (IOException e) {
+        System.out.println("Unable to read language definition snapshot: " + e);
+      } finally {
+        snapshotStream.close();
+      }
+    }
+    return loadLangDef(new ByteArrayInputStream(langDefXml));
   }
 
   /**
@@ -8,6 +8,7 @@ import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import openblocks.codeblocks.ComplaintDepartment;
 import openblocks.renderable.RenderableBlock;
 
 import java.util.ArrayList;
@@ -67,6 +68,10 @@ public class YABlockCompiler {
 
   private static final String GLOBALS = "Global Definitions";
 
+  // Matches property assignments to empty values, which are dropped from the generated Yail.
+  private static final Pattern EMPTY_PROPERTY_PATTERN =
+      Pattern.compile("\\(set-property.*\"\"\\)\\n*", Pattern.MULTILINE);
+
   // TODO(user): convert file to use StringBuilder
 
   private static BlockParser blockParser;
@@ -101,6 +106,18 @@ public class YABlockCompiler {
   public static String generateYailForProject(JSONObject formProperties,
       HashMap<String, ArrayList<RenderableBlock>> componentMap, boolean forRepl)
       throws YailGenerationException {
+    return generateYailForProject(formProperties, componentMap, forRepl, null);
+  }
+
+  /**
+   * Generate the Yail representation of the current Codeblocks code, reusing
+   * the Yail for any top-level blocks found in yailCache.
+   * @param yailCache cache of per top-level block Yail, or null for none. Must
+   * only be used with forRepl true, since the translation differs otherwise.
+   */
+  static String generateYailForProject(JSONObject formProperties,
+      HashMap<String, ArrayList<RenderableBlock>> componentMap, boolean forRepl,
+      ReplYailCache yailCache) throws YailGenerationException {
     String formName;
     try {
       formName = formProperties.getJSONObject("Properties").getString("$Name");
@@ -109,10 +126,13 @@ public class YABlockCompiler {
     }
     StringBuilder code = new StringBuilder();
     blockParser = new BlockParser(forRepl);
+    if (yailCache != null) {
+      yailCache.checkComponents(componentMap.keySet());
+    }
 
     // Add 'My Program' globals
     if (componentMap.containsKey(GLOBALS)) {
-      code.append(getYail(GLOBALS, componentMap.get(GLOBALS)));
+      code.append(getYail(GLOBALS, componentMap.get(GLOBALS), yailCache));
     }
     // Walk the properties in a breadth-first manner to ensure that parent components
     // generate YAIL before their children.
@@ -124,7 +144,7 @@ public class YABlockCompiler {
       formProperties = formProperties.getJSONObject("Properties");
       if (sourceType.equals("Form")) {
         code.append(generateYailHelper(formName, formProperties, formProperties,
-            componentMap, forRepl));
+            componentMap, forRepl, yailCache));
     } else {
         FeedbackReporter.showSystemErrorMessage("Source type " + sourceType + " is invalid.");
       }
@@ -141,12 +161,9 @@ public class YABlockCompiler {
     if (forRepl) {
       code = wrapForRepl(code, formName, componentMap);
     }
-    String finalCode = code.toString();
     // Get rid of empty property assignments
-    Matcher propertyMatcher = Pattern.compile("\\(set-property.*\"\"\\)\\n*",
-                                       Pattern.MULTILINE).matcher(finalCode);
-    finalCode = propertyMatcher.replaceAll("");
-    return finalCode;
+    Matcher propertyMatcher = EMPTY_PROPERTY_PATTERN.matcher(code);
+    return propertyMatcher.replaceAll("");
   }
 
   private static StringBuilder wrapForRepl(StringBuilder code, String formName,
@@ -187,7 +204,7 @@ public class YABlockCompiler {
   // Helper method for generating YAIL from a map of component name -> blocks
   private static String generateYailHelper(String formName, final JSONObject formProperties,
       JSONObject jsonToWalk, HashMap<String, ArrayList<RenderableBlock>> componentMap,
-      boolean forRepl)
+      boolean forRepl, ReplYailCache yailCache)
       throws YailGenerationException {
     StringBuilder code = new StringBuilder();
     try {
@@ -198,13 +215,13 @@ public class YABlockCompiler {
       if (componentMap.containsKey(name)) {
         //TODO(halabelson): As far as I can see, this next append is not doing anything: the
         // getYail is always empty.  Is there are case I am missing?
-        code.append(getYail(name, componentMap.get(name)));
+        code.append(getYail(name, componentMap.get(name), yailCache));
       }
       if (jsonToWalk.has("$Components")) {
         JSONArray components = jsonToWalk.getJSONArray("$Components");
         for (int i = 0; i < components.length(); i++) {
           code.append(generateYailHelper(formName, formProperties, components.getJSONObject(i),
-              componentMap, forRepl));
+              componentMap, forRepl, yailCache));
         }
       }
     } catch (JSONException e) {
@@ -362,11 +379,26 @@ public class YABlockCompiler {
     return sortedKeySet;
   }
 
-  private static String getYail(String name, ArrayList<RenderableBlock> componentBlocks) {
+  private static String getYail(String name, ArrayList<RenderableBlock> componentBlocks,
+      ReplYailCache yailCache) {
     StringBuilder code = new StringBuilder();
     for (int i = componentBlocks.size() - 1; i >= 0; --i) {
       RenderableBlock rb = componentBlocks.get(i);
-      code.append(blockParser.genYail(rb.getBlock()));
+      if (yailCache == null) {
+        code.append(blockParser.genYail(rb.getBlock()));
+        continue;
+      }
+      String yail = yailCache.get(rb.getBlockID());
+      if (yail == null) {
+        int complaintsBefore = ComplaintDepartment.getComplaintCount();
+        yail = blockParser.genYail(rb.getBlock());
+        // A clump that drew complaints must be translated again next time so
+        // that they are posted again.
+        if (ComplaintDepartment.getComplaintCount() == complaintsBefore) {
+          yailCache.put(rb.getBlockID(), yail);
+        }
+      }
+      code.append(yail);
     }
     return code.toString();
   }
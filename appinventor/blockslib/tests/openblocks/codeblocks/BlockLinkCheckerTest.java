@@ -0,0 +1,87 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2009-2011 Google, All Rights reserved
+// Copyright 2011-2012 MIT, All rights reserved
+// Released under the MIT License https://raw.github.com/mit-cml/app-inventor/master/mitlicense.txt
+package openblocks.codeblocks;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests how BlockLinkChecker combines its link rules.
+ *
+ */
+public class BlockLinkCheckerTest extends TestCase {
+
+  private static class Rule implements LinkRule {
+    private final boolean mandatory;
+    private final boolean result;
+    int calls;
+
+    Rule(boolean mandatory, boolean result) {
+      this.mandatory = mandatory;
+      this.result = result;
+    }
+
+    public boolean canLink(Block block1, Block block2, BlockConnector socket1,
+        BlockConnector socket2) {
+      calls++;
+      return result;
+    }
+
+    public boolean isMandatory() {
+      return mandatory;
+    }
+  }
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    BlockLinkChecker.reset();
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    BlockLinkChecker.reset();
+    super.tearDown();
+  }
+
+  public void testMandatoryRulesAreAskedWhenNoOptionalRulePasses() {
+    Rule optional = new Rule(false, false);
+    Rule mandatory = new Rule(true, true);
+    BlockLinkChecker.addRule(optional);
+    BlockLinkChecker.addRule(mandatory);
+
+    assertNull(BlockLinkChecker.canLink(null, null, null, null));
+    assertEquals(1, optional.calls);
+    // The mandatory rule may report the misplaced block to the user.
+    assertEquals(1, mandatory.calls);
+  }
+
+  public void testFailingMandatoryRuleStopsTheCheck() {
+    Rule first = new Rule(true, false);
+    Rule optional = new Rule(false, true);
+    Rule second = new Rule(true, true);
+    BlockLinkChecker.addRule(first);
+    BlockLinkChecker.addRule(optional);
+    BlockLinkChecker.addRule(second);
+
+    assertNull(BlockLinkChecker.canLink(null, null, null, null));
+    assertEquals(1, first.calls);
+    assertEquals(0, optional.calls);
+    assertEquals(0, second.calls);
+  }
+
+  public void testOptionalRulesAreSkippedOnceOnePasses() {
+    Rule first = new Rule(false, true);
+    Rule second = new Rule(false, true);
+    Rule mandatory = new Rule(true, false);
+    BlockLinkChecker.addRule(first);
+    BlockLinkChecker.addRule(second);
+    BlockLinkChecker.addRule(mandatory);
+
+    assertNull(BlockLinkChecker.canLink(null, null, null, null));
+    assertEquals(1, first.calls);
+    assertEquals(0, second.calls);
+    assertEquals(1, mandatory.calls);
+  }
+}
@@ -0,0 +1,119 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2009-2011 Google, All Rights reserved
+// Copyright 2011-2012 MIT, All rights reserved
+// Released under the MIT License https://raw.github.com/mit-cml/app-inventor/master/mitlicense.txt
+package openblocks.workspace;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tests the search index used by the SearchBar.
+ *
+ */
+public class SearchIndexTest extends TestCase {
+
+  private static class Element implements SearchableElement {
+    private final String keyword;
+
+    Element(String keyword) {
+      this.keyword = keyword;
+    }
+
+    public String getKeyword() {
+      return keyword;
+    }
+
+    public void updateInSearchResults(boolean inSearchResults) {
+    }
+  }
+
+  private static class Container implements SearchableContainer {
+    final List<Element> elements = new ArrayList<Element>();
+
+    Container(Element... elements) {
+      this.elements.addAll(Arrays.asList(elements));
+    }
+
+    public Iterable<? extends SearchableElement> getSearchableElements() {
+      return elements;
+    }
+
+    public void updateContainsSearchResults(boolean containsSearchResults) {
+    }
+  }
+
+  private final Element setText = new Element("set Label1.Text");
+  private final Element getText = new Element("Label1.Text");
+  private final Element when = new Element("when Button1.Click");
+  private final Element noKeyword = new Element(null);
+
+  private final Container labels = new Container(setText, getText, noKeyword);
+  private final Container buttons = new Container(when);
+
+  private final SearchIndex index = new SearchIndex();
+
+  private static Collection<SearchableContainer> containers(SearchableContainer... containers) {
+    return Arrays.asList(containers);
+  }
+
+  private static Set<SearchableElement> elements(SearchableElement... elements) {
+    return new HashSet<SearchableElement>(Arrays.asList(elements));
+  }
+
+  public void testSearchIgnoresCase() {
+    Map<SearchableContainer, Set<SearchableElement>> results =
+        index.search(containers(labels, buttons), "label1.TEXT");
+    assertEquals(1, results.size());
+    assertEquals(elements(setText, getText), results.get(labels));
+  }
+
+  public void testShortQuery() {
+    Map<SearchableContainer, Set<SearchableElement>> results =
+        index.search(containers(labels, buttons), "1.");
+    assertEquals(elements(setText, getText), results.get(labels));
+    assertEquals(elements(when), results.get(buttons));
+  }
+
+  public void testNoMatches() {
+    assertTrue(index.search(containers(labels, buttons), "Canvas").isEmpty());
+    assertTrue(index.search(containers(labels, buttons), "Label1.Text ").isEmpty());
+  }
+
+  public void testChangesAreSeenAfterInvalidate() {
+    index.search(containers(labels, buttons), "set");
+    Element setColor = new Element("set Label1.TextColor");
+    labels.elements.add(setColor);
+    buttons.elements.add(new Element("set Button1.Text"));
+
+    // The index still reflects the containers as they were.
+    assertEquals(elements(setText), index.search(containers(labels, buttons), "set").get(labels));
+
+    index.invalidate(labels);
+    Map<SearchableContainer, Set<SearchableElement>> results =
+        index.search(containers(labels, buttons), "set");
+    assertEquals(elements(setText, setColor), results.get(labels));
+    assertNull(results.get(buttons));
+
+    index.invalidateAll();
+    assertEquals(1, index.search(containers(labels, buttons), "set").get(buttons).size());
+  }
+
+  public void testOnlyGivenContainersAreSearched() {
+    index.search(containers(labels, buttons), "Text");
+    Map<SearchableContainer, Set<SearchableElement>> results =
+        index.search(containers(buttons), "Text");
+    assertTrue(results.isEmpty());
+
+    // A container that was dropped is reindexed when it is searched again.
+    labels.elements.remove(setText);
+    assertEquals(elements(getText), index.search(containers(labels), "Text").get(labels));
+  }
+}
@@ -10,6 +10,8 @@ import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 import org.w3c.dom.NodeList;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -135,4 +137,22 @@ public class LangDefTest extends TestCase {
     }
     assertTrue(countSocketAllowValuesTested > 1);
   }
+
+  public void testSnapshot() throws Exception {
+    ByteArrayOutputStream snapshot = new ByteArrayOutputStream();
+    LangDefSnapshot.write(documentRoot, 42, snapshot);
+
+    // A snapshot of the XML it was made from rebuilds the same DOM.
+    Element root = LangDefSnapshot.read(new ByteArrayInputStream(snapshot.toByteArray()), 42);
+    assertNotNull(root);
+    assertEquals(documentRoot.getAttribute("ya-version"), root.getAttribute("ya-version"));
+    assertEquals(documentRoot.getElementsByTagName("BlockGenus").getLength(),
+        root.getElementsByTagName("BlockGenus").getLength());
+    ByteArrayOutputStream rewritten = new ByteArrayOutputStream();
+    LangDefSnapshot.write(root, 42, rewritten);
+    assertTrue(Arrays.equals(snapshot.toByteArray(), rewritten.toByteArray()));
+
+    // A snapshot of different XML is ignored.
+    assertNull(LangDefSnapshot.read(new ByteArrayInputStream(snapshot.toByteArray()), 43));
+  }
 }
@@ -7,6 +7,8 @@ package openblocks.yacodeblocks;
 import junit.framework.Assert;
 import junit.framework.TestCase;
 
+import java.io.File;
+import java.io.FileOutputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 
@@ -247,6 +249,53 @@ public class PhoneCommManagerTest extends TestCase {
     Assert.assertTrue("Unexpected errors: " + errors, errors.isEmpty());
   }
 
+  public void testParseSplitBracketsResponse() {
+    String sinput = "\n#|kawa:3|# " + OPEN + DISPLAY_IT + BLOCK_ID + receiver + TAG + SUCCESS
+        + RESULT + 77 + CLOSE;
+    // Feed the response one character at a time, so that the brackets arrive split.
+    for (int i = 0; i < sinput.length() - 1; i++) {
+      Assert.assertEquals(0, rcm.postProcessREPLResponse(sinput.substring(i, i + 1), err));
+    }
+    Assert.assertEquals(1, rcm.postProcessREPLResponse(sinput.substring(sinput.length() - 1),
+        err));
+    waitForResponse();
+    Assert.assertEquals("77", report.getText());
+    Assert.assertTrue("Unexpected errors: " + errors, errors.isEmpty());
+  }
+
+  public void testParseLongNoiseResponse() {
+    StringBuilder noise = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      noise.append('\n');
+    }
+    noise.append("Garbage");
+    String sinput = OPEN + DISPLAY_IT + BLOCK_ID + receiver + TAG + SUCCESS + RESULT + 66 + CLOSE;
+    Assert.assertEquals(1, rcm.postProcessREPLResponse(noise + sinput, err));
+    waitForResponse();
+    Assert.assertEquals("66", report.getText());
+    Assert.assertEquals(1, errors.size());
+  }
+
+  public void testFlattenWhitespace() {
+    Assert.assertEquals("(a b  c d e)", PhoneCommManager.flattenWhitespace("(a\nb\r\nc\td\fe)"));
+    String noWhitespace = "(foo bar)";
+    Assert.assertSame(noWhitespace, PhoneCommManager.flattenWhitespace(noWhitespace));
+  }
+
+  public void testDigestOfFile() throws Exception {
+    File file = File.createTempFile("asset", ".txt");
+    try {
+      FileOutputStream out = new FileOutputStream(file);
+      out.write("abc".getBytes("UTF-8"));
+      out.close();
+      Assert.assertEquals("900150983cd24fb0d6963f7d28e17f72",
+          PhoneCommManager.digestOfFile(file.getPath()));
+    } finally {
+      file.delete();
+    }
+    Assert.assertNull(PhoneCommManager.digestOfFile(file.getPath()));
+  }
+
   // Initialize a project with the given .blk and .scm file
   private void initAndTestProject(String blkFilePath, String scmFilePath)
         throws CodeblocksException {
@@ -0,0 +1,106 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2009-2011 Google, All Rights reserved
+// Copyright 2011-2012 MIT, All rights reserved
+// Released under the MIT License https://raw.github.com/mit-cml/app-inventor/master/mitlicense.txt
+
+package openblocks.yacodeblocks;
+
+import openblocks.codeblocks.Block;
+import openblocks.renderable.RenderableBlock;
+import openblocks.workspace.Workspace;
+import openblocks.workspace.WorkspaceEvent;
+
+import junit.framework.TestCase;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Tests which workspace events drop which entries of the ReplYailCache.
+ *
+ * procBlock.blk has three procedure definitions, noargs, onearg and twoargs,
+ * whose bodies call onearg, twoargs and noargs respectively.
+ */
+public class ReplYailCacheTest extends TestCase {
+  private ReplYailCache cache;
+  private Long noargs;
+  private Long onearg;
+  private Long twoargs;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    TestUtils.setupWorkspace(null, null);
+    TestUtils.getController().loadSourceAndProperties("",
+        TestUtils.getFileAsString(TestUtils.TESTING_SOURCE_PATH + "procBlock.blk"),
+        TestUtils.getFileAsString(TestUtils.TESTING_SOURCE_PATH + "procBlock.scm"),
+        new HashMap<String, String>(), "ProjectName");
+    noargs = definition("noargs");
+    onearg = definition("onearg");
+    twoargs = definition("twoargs");
+    cache = new ReplYailCache();
+    cache.put(noargs, "noargs yail");
+    cache.put(onearg, "onearg yail");
+    cache.put(twoargs, "twoargs yail");
+  }
+
+  public void testMovingBlockKeepsEntries() {
+    cache.workspaceEventOccurred(
+        new WorkspaceEvent(null, argument("y"), WorkspaceEvent.BLOCK_MOVED));
+    assertEquals("noargs yail", cache.get(noargs));
+    assertEquals("onearg yail", cache.get(onearg));
+    assertEquals("twoargs yail", cache.get(twoargs));
+  }
+
+  public void testChangingProcedureDropsItAndItsCallers() {
+    // The argument y is in the twoargs definition, which is called from onearg.
+    cache.workspaceEventOccurred(
+        new WorkspaceEvent(null, argument("y"), WorkspaceEvent.BLOCK_DEACTIVATED));
+    assertNull(cache.get(twoargs));
+    assertNull(cache.get(onearg));
+    assertEquals("noargs yail", cache.get(noargs));
+  }
+
+  public void testAddingBlockDropsEverything() {
+    cache.workspaceEventOccurred(new WorkspaceEvent(
+        Workspace.getInstance().getBlockCanvas().getTheOnlyPage(), argument("y"),
+        WorkspaceEvent.BLOCK_ADDED));
+    assertNull(cache.get(noargs));
+    assertNull(cache.get(onearg));
+    assertNull(cache.get(twoargs));
+  }
+
+  public void testChangingComponentsDropsEverything() {
+    Set<String> components = new HashSet<String>(Collections.singleton("Button1"));
+    cache.checkComponents(components);
+    cache.put(noargs, "noargs yail");
+    cache.checkComponents(new HashSet<String>(components));
+    assertEquals("noargs yail", cache.get(noargs));
+
+    components.add("Button2");
+    cache.checkComponents(components);
+    assertNull(cache.get(noargs));
+  }
+
+  private static Long definition(String name) {
+    for (Block block : Block.getAllBlocks()) {
+      if (block.getGenusName().equals("define") && block.getBlockLabel().equals(name)) {
+        return RenderableBlock.getRenderableBlock(block.getBlockID()).getTopmost().getBlockID();
+      }
+    }
+    fail("No definition of " + name);
+    return null;
+  }
+
+  private static Long argument(String name) {
+    for (Block block : Block.getAllBlocks()) {
+      if (block.getGenusName().equals("argument") && block.getBlockLabel().equals(name)) {
+        return block.getBlockID();
+      }
+    }
+    fail("No argument " + name);
+    return null;
+  }
+}
@@ -0,0 +1,87 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2009-2011 Google, All Rights reserved
+// Copyright 2011-2012 MIT, All rights reserved
+// Released under the MIT License https://raw.github.com/mit-cml/app-inventor/master/mitlicense.txt
+
+package openblocks.yacodeblocks;
+
+import openblocks.renderable.RenderableBlock;
+import openblocks.workspace.Workspace;
+
+import junit.framework.TestCase;
+
+import java.util.HashMap;
+
+/**
+ * Tests that switching back to a screen of the same project reuses its
+ * blocks, unless they were changed elsewhere.
+ */
+public class ResidentScreensTest extends TestCase {
+  private static final String SCREEN1 = "/p/Screen1.blk";
+  private static final String SCREEN2 = "/p/Screen2.blk";
+
+  private WorkspaceController controller;
+  private String source;
+  private String properties;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    TestUtils.setupWorkspace(null, null);
+    controller = TestUtils.getController();
+    controller.setPhoneCommManager(new PhoneCommManager());
+    properties = TestUtils.getFileAsString(TestUtils.TESTING_SOURCE_PATH + "moreProcs2.scm");
+    // The test file gets upgraded when it is loaded; start from what would
+    // have been saved after that. Loading another project also drops any
+    // screens left resident by earlier tests.
+    load("/setup/Screen1.blk",
+        TestUtils.getFileAsString(TestUtils.TESTING_SOURCE_PATH + "moreProcs2.blk"), "Setup");
+    source = controller.takeSnapshot(false).getContents();
+  }
+
+  public void testSwitchBackReusesBlocks() throws Exception {
+    load(SCREEN1, source, "ProjectName");
+    RenderableBlock block = someBlock();
+    String screen1 = controller.takeSnapshot(false).getContents();
+    load(SCREEN2, source, "ProjectName");
+    assertNotSame(block, RenderableBlock.getRenderableBlock(block.getBlockID()));
+
+    load(SCREEN1, source, "ProjectName");
+    assertSame(block, RenderableBlock.getRenderableBlock(block.getBlockID()));
+    assertSame(Workspace.getInstance().getBlockCanvas().getTheOnlyPage().getJComponent(),
+        block.getParent());
+    assertEquals(screen1, controller.takeSnapshot(false).getContents());
+  }
+
+  public void testChangedScreenIsReloaded() throws Exception {
+    load(SCREEN1, source, "ProjectName");
+    RenderableBlock block = someBlock();
+    load(SCREEN2, source, "ProjectName");
+
+    // The screen was changed and saved elsewhere.
+    String changedSource = source.replace("<Location><X>", "<Location><X>1");
+    load(SCREEN1, changedSource, "ProjectName");
+    assertNotSame(block, RenderableBlock.getRenderableBlock(block.getBlockID()));
+  }
+
+  public void testOtherProjectDropsScreens() throws Exception {
+    load(SCREEN1, source, "ProjectName");
+    RenderableBlock block = someBlock();
+    load(SCREEN2, source, "OtherProject");
+    load(SCREEN1, source, "OtherProject");
+    assertNotSame(block, RenderableBlock.getRenderableBlock(block.getBlockID()));
+  }
+
+  private void load(String path, String blocks, String projectName) throws Exception {
+    controller.loadSourceAndProperties(path, blocks, properties, new HashMap<String, String>(),
+        projectName);
+  }
+
+  private static RenderableBlock someBlock() {
+    for (RenderableBlock block : Workspace.getInstance().getRenderableBlocks()) {
+      return block;
+    }
+    fail("No blocks loaded");
+    return null;
+  }
+}
@@ -0,0 +1,67 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2009-2011 Google, All Rights reserved
+// Copyright 2011-2012 MIT, All rights reserved
+// Released under the MIT License https://raw.github.com/mit-cml/app-inventor/master/mitlicense.txt
+
+package openblocks.yacodeblocks;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests StateHistory.
+ */
+public class StateHistoryTest extends TestCase {
+  private static String makeState(int x) {
+    StringBuilder sb = new StringBuilder("<YACodeBlocks>\n");
+    for (int i = 0; i < 50; i++) {
+      sb.append("<Block id=\"").append(i).append("\"><Location><X>")
+          .append(i == 7 ? x : i).append("</X></Location></Block>\n");
+    }
+    return sb.append("</YACodeBlocks>").toString();
+  }
+
+  public void testAddAndGet() throws Exception {
+    StateHistory history = new StateHistory();
+    List<String> expected = new ArrayList<String>();
+    for (int i = 0; i < 35; i++) {
+      String state = (i == 20) ? "\u00e9 completely different" : makeState(i);
+      history.add(state);
+      expected.add(state);
+    }
+    assertEquals(expected.size(), history.size());
+    // Walk backwards, as undo does, and then in a scattered order.
+    for (int i = expected.size() - 1; i >= 0; i--) {
+      assertEquals(expected.get(i), history.get(i));
+    }
+    int[] order = { 3, 29, 0, 34, 12, 11, 21, 20 };
+    for (int i : order) {
+      assertEquals(expected.get(i), history.get(i));
+    }
+  }
+
+  public void testRemoveFirstAndTruncate() throws Exception {
+    StateHistory history = new StateHistory();
+    for (int i = 0; i < 5; i++) {
+      history.add(makeState(i));
+    }
+    history.removeFirst();
+    history.removeFirst();
+    assertEquals(3, history.size());
+    assertEquals(makeState(2), history.get(0));
+    assertEquals(makeState(4), history.get(2));
+
+    history.truncate(1);
+    history.add(makeState(99));
+    assertEquals(2, history.size());
+    assertEquals(makeState(2), history.get(0));
+    assertEquals(makeState(99), history.get(1));
+
+    history.clear();
+    assertEquals(0, history.size());
+    history.add("");
+    assertEquals("", history.get(0));
+  }
+}
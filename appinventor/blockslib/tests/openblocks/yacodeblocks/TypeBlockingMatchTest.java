@@ -0,0 +1,115 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2009-2011 Google, All Rights reserved
+// Copyright 2011-2012 MIT, All rights reserved
+// Released under the MIT License https://raw.github.com/mit-cml/app-inventor/master/mitlicense.txt
+
+package openblocks.yacodeblocks;
+
+import openblocks.codeblocks.Block;
+import openblocks.renderable.BlockUtilities;
+import openblocks.renderable.FactoryRenderableBlock;
+import openblocks.renderable.RenderableBlock;
+import openblocks.renderable.TextualFactoryBlock;
+import openblocks.workspace.FactoryException;
+import openblocks.workspace.FactoryManager;
+import openblocks.workspace.Workspace;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Tests that BlockUtilities.getAllMatchingBlocks(), which looks blocks up in
+ * an index, finds the same blocks as a scan of the drawers.
+ */
+public class TypeBlockingMatchTest extends TestCase {
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    TestUtils.setupWorkspace(null, null);
+    TestUtils.getController().setPhoneCommManager(new PhoneCommManager());
+    String blkString = TestUtils.getFileAsString(TestUtils.TESTING_SOURCE_PATH + "moreProcs2.blk");
+    String scmString = TestUtils.getFileAsString(TestUtils.TESTING_SOURCE_PATH + "moreProcs2.scm");
+    TestUtils.getController().loadSourceAndProperties("", blkString, scmString,
+        new HashMap<String, String>(), "ProjectName");
+  }
+
+  public void testMatchesScan() throws Exception {
+    String[] queries = { "a", "se", "set", "call", "Text", "text [", "\"hello", "*", "-",
+        "to procedure", "xyzzy" };
+    for (String query : queries) {
+      assertEquals(query, scan(query), describe(BlockUtilities.getAllMatchingBlocks(query)));
+    }
+  }
+
+  public void testSeesDrawerChanges() throws Exception {
+    List<TextualFactoryBlock> matches = BlockUtilities.getAllMatchingBlocks("set");
+    assertFalse(matches.isEmpty());
+    FactoryRenderableBlock removed = matches.get(0).getfactoryBlock();
+    String drawer = removed.getParent().getName();
+    FactoryManager factoryManager = Workspace.getInstance().getFactoryManager();
+    // Removing a block from a drawer doesn't fire a workspace event.
+    try {
+      factoryManager.removeStaticBlock(removed, drawer);
+    } catch (FactoryException e) {
+      factoryManager.removeDynamicBlock(removed, drawer);
+    }
+    for (TextualFactoryBlock match : BlockUtilities.getAllMatchingBlocks("set")) {
+      assertNotSame(removed, match.getfactoryBlock());
+    }
+    assertEquals(scan("set"), describe(BlockUtilities.getAllMatchingBlocks("set")));
+  }
+
+  /**
+   * Returns the labels of the blocks that match query, found by checking every
+   * block in the drawers.
+   */
+  private static List<String> scan(String query) {
+    String keyword = query.equals("*") ? "\u00D7" : query.equals("-") ? "\u2212" : query;
+    List<String> matches = new ArrayList<String>();
+    for (RenderableBlock renderable : Workspace.getInstance().getFactoryManager().getBlocks()) {
+      if (renderable == null || renderable.getBlockID().equals(Block.NULL)
+          || !(renderable instanceof FactoryRenderableBlock)) {
+        continue;
+      }
+      String rep = BlockUtilities.disambiguousStringRep(renderable);
+      if (renderable.getKeyword().toLowerCase().contains(keyword.toLowerCase())) {
+        matches.add(rep);
+      }
+      if (keyword.startsWith("\"")
+          && renderable.getBlock().getGenusName().equalsIgnoreCase("string")) {
+        if (keyword.split("\"").length > 1) {
+          matches.add(rep);
+        }
+      } else if (keyword.length() > renderable.getKeyword().length()
+          && rep.toLowerCase().contains(keyword.toLowerCase())) {
+        matches.add(rep);
+      }
+    }
+    Collections.sort(matches);
+    return removeDuplicates(matches);
+  }
+
+  private static List<String> describe(List<TextualFactoryBlock> blocks) {
+    List<String> reps = new ArrayList<String>();
+    for (TextualFactoryBlock block : blocks) {
+      reps.add(BlockUtilities.disambiguousStringRep(block.getfactoryBlock()));
+    }
+    Collections.sort(reps);
+    return removeDuplicates(reps);
+  }
+
+  private static List<String> removeDuplicates(List<String> sorted) {
+    List<String> result = new ArrayList<String>();
+    for (String s : sorted) {
+      if (result.isEmpty() || !result.get(result.size() - 1).equalsIgnoreCase(s)) {
+        result.add(s);
+      }
+    }
+    return result;
+  }
+}
@@ -206,6 +206,24 @@ public class YaBlockCompilerTest extends TestCase {
    Assert.fail("Empty Socket Block Missing");
   }
 
+  /**
+   * Test that clearing complaints clears those found by translation
+   */
+  public void testClearComplaints() throws CodeblocksException {
+   initAndTestProject("socket.blk", "socket.scm");
+   try {
+     TestUtils.getController().testGetYail(properties);
+   } catch (YailGenerationException e) {
+     // This might occur if any of the errors are severe.
+   }
+   assertFalse(RenderableBlock.getComplainedBlocks().isEmpty());
+   ComplaintDepartment.clearComplaints();
+   assertTrue(RenderableBlock.getComplainedBlocks().isEmpty());
+   for (RenderableBlock rb : RenderableBlock.getAllRenderableBlocks()) {
+     assertFalse(rb.hasComplaint());
+   }
+  }
+
   /**
    * Test discovery of duplicate handlers
    */
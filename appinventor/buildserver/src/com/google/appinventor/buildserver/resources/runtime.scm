@@ -813,6 +813,7 @@
 
 (define-alias JavaCollection <java.util.Collection>)
 (define-alias JavaIterator <java.util.Iterator>)
+(define-alias JavaConcurrentHashMap <java.util.concurrent.ConcurrentHashMap>)
 
 ;;; This is what CodeBlocks sends to Yail to represent the value of an uninitialized variable
 ;;; Perhaps we should arrange things so that codeblocks never sends this.
@@ -877,10 +878,10 @@
   (let ((coerced-args (coerce-args method-name arglist typelist)))
     (let ((result
            (if (all-coercible? coerced-args)
-               (apply invoke
-                      `(,(lookup-in-current-form-environment component-name)
-                        ,method-name
-                        ,@coerced-args))
+               (invoke-component-method
+                (lookup-in-current-form-environment component-name)
+                method-name
+                coerced-args)
                (generate-runtime-type-error method-name arglist))))
       ;; TODO(markf): this should probably be generalized but for now this is OK, I think
       (sanitize-component-data result))))
@@ -905,14 +906,49 @@
                                      (list (get-display-representation possible-component)))
         (let ((result
                (if (all-coercible? coerced-args)
-                   (apply invoke
-                          `(,component-value
-                            ,method-name
-                            ,@coerced-args))
+                   (invoke-component-method component-value method-name coerced-args)
                    (generate-runtime-type-error method-name arglist))))
           ;; TODO(markf): this should probably be generalized but for now this is OK, I think
           (sanitize-component-data result)))))
 
+;;; INVOKE-COMPONENT-METHOD
+;;; Call the named Java method of the component with the already coerced args.
+;;; Kawa's invoke looks up the methods of the component's class by reflection on
+;;; every call, which dominates tight loops that call component methods.  So we
+;;; keep the methods we find for each class and method name, and let them choose
+;;; among the overloads for the args.  Names with no method are left to invoke,
+;;; which reports the error.  Methods can be called from timer and other event
+;;; threads, so the maps are concurrent.
+
+(define *component-methods* :: JavaConcurrentHashMap (make JavaConcurrentHashMap))
+
+(define (invoke-component-method component method-name args)
+  (let ((method (lookup-component-method component method-name)))
+    (if (eq? method #!null)
+        (apply invoke component method-name args)
+        (apply method component args))))
+
+(define (lookup-component-method component method-name)
+  (let* ((component-class :: java.lang.Class (*:getClass component))
+         (methods :: JavaConcurrentHashMap (*:get *component-methods* component-class)))
+    (if (eq? methods #!null)
+        (let ((new-methods :: JavaConcurrentHashMap (make JavaConcurrentHashMap)))
+          (set! methods (*:putIfAbsent *component-methods* component-class new-methods))
+          (if (eq? methods #!null)
+              (set! methods new-methods))))
+    (let ((method :: gnu.mapping.Procedure (*:get methods method-name)))
+      (if (eq? method #!null)
+          (begin
+            (set! method
+                  (gnu.kawa.reflect.ClassMethods:apply
+                   (as gnu.bytecode.ObjectType (gnu.bytecode.Type:make component-class))
+                   (gnu.expr.Compilation:mangleName (symbol->string method-name))
+                   #\V
+                   (gnu.expr.Language:getDefaultLanguage)))
+            (if (not (eq? method #!null))
+                (*:put methods method-name method))))
+      method)))
+
 
 ;;; CALL-USER-PROCEDURE
 
@@ -1590,7 +1626,8 @@ list, use the make-yail-list constructor with no arguments.
   (cdr yail-list))
 
 (define (set-yail-list-contents! yail-list contents)
-  (set-cdr! yail-list contents))
+  (set-cdr! yail-list contents)
+  (*:contentsChanged (as YailList yail-list)))
 
 
 (define (insert-yail-list-header x)
@@ -1689,8 +1726,10 @@ list, use the make-yail-list constructor with no arguments.
 
 
 ;; Implements the Blocks length operation
+;; The list operations that use an index go through the YailList methods,
+;; which find the item without walking the list.
 (define (yail-list-length yail-list)
-  (length (yail-list-contents yail-list)))
+  (*:size (as YailList yail-list)))
 
 ;; These are removed, to simplify the API to lists
 ;; ;; Implements the Blocks first operation
@@ -1735,7 +1774,7 @@ list, use the make-yail-list constructor with no arguments.
                  len
                  (get-display-representation yail-list))
          "Select list item: List index too large")
-    (list-ref (yail-list-contents yail-list) (- index 1)))))
+    (*:getObject (as YailList yail-list) (- index 1)))))
 
 
 ;; Implements the Blocks set list item operation
@@ -1754,12 +1793,11 @@ list, use the make-yail-list constructor with no arguments.
                  len
                  (get-display-representation yail-list))
          "List index too large")))
-  (set-car! (list-tail (yail-list-contents yail-list) (- index 1)) value))
+  (*:setObject (as YailList yail-list) (- index 1) value))
 
 
 
 ;; Implements the Blocks remove list item operation
-;; We have to operate on the yail-list itself, not the contents
 (define (yail-list-remove-item! yail-list index)
   (let ((index2 (coerce-to-number index)))
     (if (eq? index2 *non-coercible-value*)
@@ -1785,8 +1823,7 @@ list, use the make-yail-list constructor with no arguments.
                    len
                    (get-display-representation yail-list))
            "List index too large"))
-      (let ((pair-pointing-to-deletion (list-tail yail-list (- index2 1))))
-        (set-cdr! pair-pointing-to-deletion (cddr pair-pointing-to-deletion))))))
+      (*:removeObject (as YailList yail-list) (- index2 1)))))
 
 
 ;; Implements the Blocks insert list item operation
@@ -1815,11 +1852,7 @@ list, use the make-yail-list constructor with no arguments.
                    (get-display-representation yail-list)
                    len+1)
            "List index too large"))
-      (let ((contents (yail-list-contents yail-list)))
-        (if (= index2 1)
-            (set-yail-list-contents! yail-list (cons item contents))
-            (let ((at-item (list-tail contents (- index2 2))))
-              (set-cdr! at-item (cons item (cdr at-item)))))))))
+      (*:insertObject (as YailList yail-list) (- index2 1) item))))
 
 ;; Extends list A by appending the elements of list B to it
 ;; Modifies list A
@@ -1829,14 +1862,7 @@ list, use the make-yail-list constructor with no arguments.
   ;; between the augmented list and the source of the added elements.
   ;; But like Python, we do a shallow copy, so that substructure is
   ;; shared.
-  (define (list-copy l)
-    (if (null? l)
-    '()
-    (cons (car l) (list-copy (cdr l)))))
-  ;; We have to operate on the yail-list itself, not the contents, because
-  ;; the contents might be empty
-  (set-cdr! (list-tail yail-list-A (length (yail-list-contents yail-list-A)))
-        (list-copy (yail-list-contents yail-list-B))))
+  (*:addObjects (as YailList yail-list-A) (as YailList yail-list-B)))
 
 
 ;; Extend list A by appending the items to it
@@ -1231,4 +1231,28 @@ public class YailEvalTest extends TestCase {
         "(coerce-to-string (sanitize-component-data zero))";
     assertEquals("0.0", scheme.eval(schemeString).toString());
   }
+
+  public void testInvokeComponentMethodCachesLookups() throws Throwable {
+    String schemeString = "(let ((builder (java.lang.StringBuilder))) " +
+        "(invoke-component-method builder 'append (list \"a\")) " +
+        "(invoke-component-method builder 'append (list 1)) " +
+        "(*:toString builder))";
+    assertEquals("a1", scheme.eval(schemeString).toString());
+    // The first call looked up the method. Later lookups find the same one.
+    String methods = "(*:get *component-methods* (*:getClass (java.lang.StringBuilder)))";
+    assertTrue((Boolean) scheme.eval("(*:containsKey " + methods + " 'append)"));
+    assertTrue((Boolean) scheme.eval("(let ((builder (java.lang.StringBuilder))) " +
+        "(eq? (lookup-component-method builder 'append) " +
+        "(lookup-component-method builder 'append)))"));
+    // Names without a method are not cached, and are left to invoke to report.
+    assertTrue((Boolean) scheme.eval(
+        "(eq? (lookup-component-method (java.lang.StringBuilder) 'noSuchMethod) #!null)"));
+    assertFalse((Boolean) scheme.eval("(*:containsKey " + methods + " 'noSuchMethod)"));
+    try {
+      scheme.eval("(invoke-component-method (java.lang.StringBuilder) 'noSuchMethod '())");
+      fail();
+    } catch (RuntimeException e) {
+      // Expected.
+    }
+  }
 }
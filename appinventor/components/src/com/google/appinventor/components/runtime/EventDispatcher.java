@@ -69,6 +69,12 @@ public class EventDispatcher {
     private final HashMap<String, Set<EventClosure>> eventClosuresMap =
         new HashMap<String, Set<EventClosure>>();
 
+    // Mapping of components to the event closure that last handled each of their events,
+    // so that a component's later events go straight to it instead of being offered to
+    // every closure with the same event name.  Cleared whenever closures are unregistered.
+    private final HashMap<Component, Map<String, EventClosure>> handlingClosuresMap =
+        new HashMap<Component, Map<String, EventClosure>>();
+
     EventRegistry(HandlesEventDispatching dispatchDelegate) {
       this.dispatchDelegate = dispatchDelegate;
     }
@@ -137,6 +143,7 @@ public class EventDispatcher {
     if (eventClosures == null || eventClosures.isEmpty()) {
       return;
     }
+    er.handlingClosuresMap.clear();
     Set<EventClosure> toDelete = new HashSet<EventClosure>();
     for (EventClosure eventClosure : eventClosures) {
       if (eventClosure.componentId.equals(componentId)) {
@@ -160,6 +167,7 @@ public class EventDispatcher {
   public static void unregisterAllEventsForDelegation() {
     for (EventRegistry er : mapDispatchDelegateToEventRegistry.values()) {
       er.eventClosuresMap.clear();
+      er.handlingClosuresMap.clear();
     }
   }
 
@@ -174,6 +182,7 @@ public class EventDispatcher {
     EventRegistry er = removeEventRegistry(dispatchDelegate);
     if (er != null) {
       er.eventClosuresMap.clear();
+      er.handlingClosuresMap.clear();
     }
   }
 
@@ -194,7 +203,8 @@ public class EventDispatcher {
       EventRegistry er = getEventRegistry(dispatchDelegate);
       Set<EventClosure> eventClosures = er.eventClosuresMap.get(eventName);
       if (eventClosures != null && eventClosures.size() > 0) {
-        dispatched = delegateDispatchEvent(dispatchDelegate, eventClosures, component, args);
+        dispatched = delegateDispatchEvent(dispatchDelegate, er, eventClosures, component,
+            eventName, args);
       }
     }
     return dispatched;
@@ -203,19 +213,42 @@ public class EventDispatcher {
   /**
    * Delegates the dispatch of an event to the dispatch delegate.
    *
+   * @param er the event registry of the dispatch delegate
    * @param eventClosures set of event closures matching the event name
    * @param component the component that generated the event
+   * @param eventName  name of event being raised
    * @param args  arguments to event handler
    */
   private static boolean delegateDispatchEvent(HandlesEventDispatching dispatchDelegate,
+                                               EventRegistry er,
                                                Set<EventClosure> eventClosures,
-                                               Component component, Object... args) {
+                                               Component component, String eventName,
+                                               Object... args) {
+    // First try the event closure that handled this component's event last time.  The component
+    // may since have been given another name, so if the delegate doesn't dispatch the event to
+    // it, we go on to the others.
+    Map<String, EventClosure> handlingClosures = er.handlingClosuresMap.get(component);
+    EventClosure handlingClosure =
+        (handlingClosures == null) ? null : handlingClosures.get(eventName);
+    if (handlingClosure != null) {
+      if (dispatchDelegate.dispatchEvent(component,
+                                         handlingClosure.componentId,
+                                         handlingClosure.eventName,
+                                         args)) {
+        return true;
+      }
+      handlingClosures.remove(eventName);
+    }
+
     // The event closures set will contain all event closures matching the event name.
     // We depend on the delegate's dispatchEvent method to check the registered event closure and
     // only dispatch the event if the registered component matches the component that generated the
     // event.  This should only be true for one (or zero) of the closures.
     boolean dispatched = false;
     for (EventClosure eventClosure : eventClosures) {
+      if (eventClosure.equals(handlingClosure)) {
+        continue;
+      }
       if (dispatchDelegate.dispatchEvent(component,
                                          eventClosure.componentId,
                                          eventClosure.eventName,
@@ -224,6 +257,12 @@ public class EventDispatcher {
           Log.i("EventDispatcher", "Successfully dispatched event " +
               eventClosure.componentId + "." + eventClosure.eventName);
         }
+        handlingClosures = er.handlingClosuresMap.get(component);
+        if (handlingClosures == null) {
+          handlingClosures = new HashMap<String, EventClosure>();
+          er.handlingClosuresMap.put(component, handlingClosures);
+        }
+        handlingClosures.put(eventName, eventClosure);
         dispatched = true;  // break here or keep iterating through loop?
       }
     }
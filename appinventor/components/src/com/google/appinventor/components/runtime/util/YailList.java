@@ -12,6 +12,7 @@ import gnu.lists.Pair;
 
 import org.json.JSONException;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
@@ -33,6 +34,13 @@ public class YailList extends Pair {
   // legitimate Yail data types.  See the definition of sanitization
   // in runtime.scm.
 
+  // The pairs holding the items of this list, in order, so that an item
+  // can be reached by its index without walking the list. Built on first
+  // use and kept up to date by the methods below that change the list.
+  // The list primitives in runtime.scm that change the list's pairs
+  // themselves must call contentsChanged() to drop it.
+  private transient ArrayList<Pair> cells;
+
   /**
    * Create an empty YailList.
    */
@@ -86,10 +94,10 @@ public class YailList extends Pair {
    * Return this YailList as an array of Strings.
    */
   public String[] toStringArray() {
-    int size = this.size();
-    String[] objects = new String[size];
-    for (int i = 1; i <= size; i++) {
-      objects[i - 1] = String.valueOf(get(i));
+    ArrayList<Pair> cells = cells();
+    String[] objects = new String[cells.size()];
+    for (int i = 0; i < objects.length; i++) {
+      objects[i] = String.valueOf(cells.get(i).getCar());
     }
     return objects;
   }
@@ -104,10 +112,8 @@ public class YailList extends Pair {
       StringBuilder json = new StringBuilder();
       String separator = "";
       json.append('[');
-      int size = this.size();
-      for (int i = 1; i <= size; i++) {
-        Object value = get(i);
-        json.append(separator).append(JsonUtil.getJsonRepresentation(value));
+      for (Pair cell : cells()) {
+        json.append(separator).append(JsonUtil.getJsonRepresentation(cell.getCar()));
         separator = ",";
       }
       json.append(']');
@@ -124,7 +130,7 @@ public class YailList extends Pair {
    */
   @Override
   public int size() {
-    return super.size() - 1;
+    return cells().size();
   }
 
   /**
@@ -145,13 +151,76 @@ public class YailList extends Pair {
    * Return the String at the given index.
    */
   public String getString(int index) {
-    return (String) get(index + 1);
+    return (String) getObject(index);
   }
 
   /**
    * Return the Object at the given index.
    */
   public Object getObject(int index) {
-    return get(index + 1);
+    return cells().get(index).getCar();
+  }
+
+  /**
+   * Replace the Object at the given index.
+   */
+  public void setObject(int index, Object value) {
+    cells().get(index).setCar(value);
+  }
+
+  /**
+   * Insert value so that it is at the given index, which may be the size of
+   * this YailList to add it at the end.
+   */
+  public void insertObject(int index, Object value) {
+    ArrayList<Pair> cells = cells();
+    Pair before = (index == 0) ? this : cells.get(index - 1);
+    Pair cell = new Pair(value, before.getCdr());
+    before.setCdr(cell);
+    cells.add(index, cell);
+  }
+
+  /**
+   * Add value at the end of this YailList.
+   */
+  public void addObject(Object value) {
+    insertObject(cells().size(), value);
+  }
+
+  /**
+   * Add the items of other, which may be this YailList, at the end of this
+   * YailList.
+   */
+  public void addObjects(YailList other) {
+    for (Pair cell : new ArrayList<Pair>(other.cells())) {
+      addObject(cell.getCar());
+    }
+  }
+
+  /**
+   * Remove the Object at the given index.
+   */
+  public void removeObject(int index) {
+    ArrayList<Pair> cells = cells();
+    Pair before = (index == 0) ? this : cells.get(index - 1);
+    before.setCdr(cells.remove(index).getCdr());
+  }
+
+  /**
+   * Called after the pairs of this YailList have been changed other than
+   * through its methods.
+   */
+  public void contentsChanged() {
+    cells = null;
+  }
+
+  private ArrayList<Pair> cells() {
+    if (cells == null) {
+      cells = new ArrayList<Pair>();
+      for (Object rest = cdr; rest instanceof Pair; rest = ((Pair) rest).getCdr()) {
+        cells.add((Pair) rest);
+      }
+    }
+    return cells;
   }
 }
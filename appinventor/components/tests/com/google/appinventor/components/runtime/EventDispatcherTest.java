@@ -0,0 +1,126 @@
+// -*- mode: java; c-basic-offset: 2; -*-
+// Copyright 2009-2011 Google, All Rights reserved
+// Copyright 2011-2012 MIT, All rights reserved
+// Released under the MIT License https://raw.github.com/mit-cml/app-inventor/master/mitlicense.txt
+
+package com.google.appinventor.components.runtime;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests EventDispatcher.java.
+ *
+ */
+public class EventDispatcherTest extends TestCase {
+
+  /*
+   * Stands in for a form: only dispatches an event to the handler registered
+   * under the name that the raising component currently has.
+   */
+  private static class TestDispatchDelegate implements HandlesEventDispatching {
+    final Map<String, Component> components = new HashMap<String, Component>();
+    final List<String> offeredTo = new ArrayList<String>();
+
+    public boolean canDispatchEvent(Component component, String eventName) {
+      return true;
+    }
+
+    public boolean dispatchEvent(Component component, String componentName, String eventName,
+        Object[] args) {
+      offeredTo.add(componentName);
+      return components.get(componentName) == component;
+    }
+  }
+
+  private static class TestComponent implements Component {
+    private final HandlesEventDispatching dispatchDelegate;
+
+    TestComponent(HandlesEventDispatching dispatchDelegate) {
+      this.dispatchDelegate = dispatchDelegate;
+    }
+
+    public HandlesEventDispatching getDispatchDelegate() {
+      return dispatchDelegate;
+    }
+  }
+
+  private TestDispatchDelegate form;
+  private Component button1;
+
+  @Override
+  protected void setUp() throws Exception {
+    super.setUp();
+    form = new TestDispatchDelegate();
+    button1 = new TestComponent(form);
+    form.components.put("Button1", button1);
+    form.components.put("Button2", new TestComponent(form));
+    form.components.put("Button3", new TestComponent(form));
+    EventDispatcher.registerEventForDelegation(form, "Button1", "Click");
+    EventDispatcher.registerEventForDelegation(form, "Button2", "Click");
+    EventDispatcher.registerEventForDelegation(form, "Button3", "Click");
+  }
+
+  @Override
+  protected void tearDown() throws Exception {
+    EventDispatcher.removeDispatchDelegate(form);
+    super.tearDown();
+  }
+
+  public void testDispatchGoesToTheHandlerThatHandledItBefore() {
+    assertTrue(EventDispatcher.dispatchEvent(button1, "Click"));
+    assertEquals(3, form.offeredTo.size());
+
+    form.offeredTo.clear();
+    assertTrue(EventDispatcher.dispatchEvent(button1, "Click"));
+    assertEquals(Arrays.asList("Button1"), form.offeredTo);
+  }
+
+  public void testDispatchFallsBackWhenTheComponentIsRenamed() {
+    EventDispatcher.dispatchEvent(button1, "Click");
+    form.components.remove("Button1");
+    form.components.put("OkButton", button1);
+    EventDispatcher.registerEventForDelegation(form, "OkButton", "Click");
+
+    form.offeredTo.clear();
+    assertTrue(EventDispatcher.dispatchEvent(button1, "Click"));
+    assertEquals("Button1", form.offeredTo.get(0));
+    assertTrue(form.offeredTo.contains("OkButton"));
+
+    form.offeredTo.clear();
+    assertTrue(EventDispatcher.dispatchEvent(button1, "Click"));
+    assertEquals(Arrays.asList("OkButton"), form.offeredTo);
+  }
+
+  public void testDispatchFallsBackWhenTheHandlerIsRemoved() {
+    EventDispatcher.dispatchEvent(button1, "Click");
+    form.components.remove("Button1");
+
+    form.offeredTo.clear();
+    assertFalse(EventDispatcher.dispatchEvent(button1, "Click"));
+    assertEquals(3, form.offeredTo.size());
+    assertEquals("Button1", form.offeredTo.get(0));
+  }
+
+  public void testUnregisterForgetsTheHandlersThatHandledEvents() {
+    EventDispatcher.dispatchEvent(button1, "Click");
+    EventDispatcher.unregisterEventForDelegation(form, "Button3", "Click");
+
+    // All the remaining handlers are offered the event again.
+    form.offeredTo.clear();
+    assertTrue(EventDispatcher.dispatchEvent(button1, "Click"));
+    assertEquals(2, form.offeredTo.size());
+    assertTrue(form.offeredTo.contains("Button1"));
+    assertTrue(form.offeredTo.contains("Button2"));
+
+    EventDispatcher.unregisterEventForDelegation(form, "Button1", "Click");
+    form.offeredTo.clear();
+    assertFalse(EventDispatcher.dispatchEvent(button1, "Click"));
+    assertEquals(Arrays.asList("Button2"), form.offeredTo);
+  }
+}
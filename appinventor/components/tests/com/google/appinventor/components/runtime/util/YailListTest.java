@@ -202,4 +202,29 @@ public class YailListTest extends TestCase {
       // this is the intended behavior
     }
   }
+
+  public void testChangingItems() {
+    YailList yailList = new YailList();
+    yailList.addObject("b");
+    yailList.insertObject(0, "a");
+    yailList.addObject("d");
+    yailList.insertObject(2, "c");
+    assertEquals("(a b c d)", yailList.toString());
+    yailList.setObject(3, "D");
+    yailList.removeObject(0);
+    assertEquals(3, yailList.size());
+    assertEquals("c", yailList.getString(1));
+    assertEquals("[\"b\",\"c\",\"D\"]", yailList.toJSONString());
+    yailList.addObjects(yailList);
+    assertEquals("(b c D b c D)", yailList.toString());
+    yailList.removeObject(5);
+    yailList.addObject("e");
+    assertEquals("(b c D b c e)", yailList.toString());
+    try {
+      yailList.removeObject(6);
+      fail();
+    } catch (IndexOutOfBoundsException e) {
+      // this is the intended behavior
+    }
+  }
 }